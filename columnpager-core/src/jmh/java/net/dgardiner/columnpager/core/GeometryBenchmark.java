@@ -0,0 +1,173 @@
+package net.dgardiner.columnpager.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks page offset calculation, scroll position lookups and target page selection
+ * across adapter sizes and column counts.
+ *
+ * <p>The geometry is configured as {@code ColumnPager} configures it
+ * (a width source backed by the adapter). Scroll offsets are limited to the int range, so
+ * lookups are made within the positions that can be scrolled to. Lookups over the same
+ * configurations are checked by {@code PageGeometryTest}.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GeometryBenchmark {
+    private static final int CLIENT_WIDTH = 1080;
+    private static final int MARGIN = 8;
+
+    // Number of items in the pager window (offscreen page limit of 1)
+    private static final int WINDOW_SIZE = 3;
+
+    // Size of the precomputed lookup tables (power of two)
+    private static final int LOOKUPS = 1024;
+
+    @Param({"10", "1000", "100000", "10000000"})
+    public int count;
+
+    @Param({"1", "2", "3", "4", "6", "12"})
+    public int columns;
+
+    /**
+     * true: every page is one column wide, false: widths vary between 1 and 2 columns.
+     */
+    @Param({"true", "false"})
+    public boolean uniform;
+
+    private PageGeometry geometry;
+    private PagerItemTable table;
+    private TargetPageSelector selector;
+
+    private int currentItem;
+
+    private int[] positions;
+    private int[] scrollOffsets;
+    private int[] velocities;
+
+    private int lookup;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        geometry = new PageGeometry();
+        geometry.update(CLIENT_WIDTH, columns, MARGIN);
+        geometry.setWidthSource(new AdapterWidthSource(count, !uniform));
+
+        // Positions that can be scrolled to (offsets saturate at Integer.MAX_VALUE)
+        final int scrollRange = Math.max(1, geometry.getEndScrollOffset(count - 1));
+        final int scrollableCount = Math.min(count, geometry.positionAt(scrollRange) + 1);
+
+        currentItem = scrollableCount / 2;
+        geometry.setAnchorPosition(currentItem);
+
+        // Build pager window
+        table = new PagerItemTable();
+
+        for (int i = 0; i < WINDOW_SIZE && i < count; i++) {
+            table.acquire().setPosition(currentItem + i);
+        }
+
+        // Build lookups
+        final Random random = new Random(42);
+
+        positions = new int[LOOKUPS];
+        scrollOffsets = new int[LOOKUPS];
+        velocities = new int[LOOKUPS];
+
+        for (int i = 0; i < LOOKUPS; i++) {
+            positions[i] = random.nextInt(scrollableCount);
+            scrollOffsets[i] = random.nextInt(scrollRange);
+            velocities[i] = random.nextInt(8000) - 4000;
+        }
+
+        selector = new TargetPageSelector();
+        selector.setFlingDistance(50);
+        selector.setMinimumVelocity(800);
+        selector.setDensity(2.625f);
+    }
+
+    /**
+     * Full offset calculation, as done by the pager after a data set or dimension change.
+     */
+    @Benchmark
+    public int calculatePageOffsets() {
+        geometry.invalidateWidths();
+        geometry.update(CLIENT_WIDTH, columns, MARGIN);
+
+        final int lastOffset = geometry.getEndScrollOffset(count - 1);
+
+        return table.updateWidths(geometry) ? lastOffset : -lastOffset;
+    }
+
+    @Benchmark
+    public int offsetOf() {
+        return geometry.offsetOf(positions[next()]);
+    }
+
+    @Benchmark
+    public int positionAt() {
+        return geometry.positionAt(scrollOffsets[next()]);
+    }
+
+    /**
+     * Target page selection on drag release (settles and multi-page flings).
+     */
+    @Benchmark
+    public int determineTargetPage() {
+        final int i = next();
+
+        return selector.select(geometry, scrollOffsets[i], currentItem, velocities[i], velocities[i] / 10, count);
+    }
+
+    private int next() {
+        lookup = (lookup + 1) & (LOOKUPS - 1);
+        return lookup;
+    }
+
+    /**
+     * Width source of an adapter with `count` pages, variable pages alternate between 1 and 2
+     * columns wide.
+     */
+    private static class AdapterWidthSource implements PageGeometry.WidthSource {
+        private final int count;
+        private final boolean variable;
+
+        AdapterWidthSource(int count, boolean variable) {
+            this.count = count;
+            this.variable = variable;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public boolean hasVariableWidths() {
+            return variable;
+        }
+
+        @Override
+        public float getPageWidthFraction(int position) {
+            return variable && (position % 3) == 0 ? 2f : 1f;
+        }
+    }
+}
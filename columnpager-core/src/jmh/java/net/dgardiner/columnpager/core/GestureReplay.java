@@ -0,0 +1,387 @@
+package net.dgardiner.columnpager.core;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Replays recorded touch gestures through the pager's drag, release and settle math on a
+ * fake clock, reporting per-event processing time, populate passes and landing pages.
+ *
+ * <p>Traces are CSV files with one pointer sample per line:</p>
+ *
+ * <pre>
+ * # time (ms), action (MotionEvent action: 0 = down, 1 = up, 2 = move, 3 = cancel), x (px)
+ * 0,0,900
+ * 16,2,870
+ * ...
+ * </pre>
+ *
+ * <p>Run with {@code ./gradlew :columnpager-core:replayGestures -Ptrace=<file>} (the bundled
+ * sample trace is replayed by default), pass options with {@code -Preplay="<options>"}:</p>
+ *
+ * <ul>
+ *     <li>{@code --count <n>} number of pages (default 1000)</li>
+ *     <li>{@code --columns <n>} visible columns (default 1)</li>
+ *     <li>{@code --width <px>} client width (default 1080)</li>
+ *     <li>{@code --density <d>} display density (default 2.625)</li>
+ * </ul>
+ *
+ * <p>Landing pages of the sample trace are checked by {@code TargetPageSelectorTest}.</p>
+ */
+public class GestureReplay {
+    private static final String SAMPLE_TRACE = "/gestures/sample.csv";
+
+    private static final int ACTION_DOWN = 0;
+    private static final int ACTION_UP = 1;
+    private static final int ACTION_MOVE = 2;
+    private static final int ACTION_CANCEL = 3;
+
+    // Constants matching ColumnPager
+    private static final int MIN_DISTANCE_FOR_FLING = 25; // dips
+    private static final int MIN_FLING_VELOCITY = 400; // dips
+    private static final int MAX_FLING_VELOCITY = 8000; // dips
+    private static final int MAX_SETTLE_DURATION = 600; // ms
+    private static final int TOUCH_SLOP = 16; // dips
+    private static final int OFFSCREEN_PAGE_LIMIT = 1;
+
+    private static final int FRAME_INTERVAL = 16; // ms
+    private static final int VELOCITY_HORIZON = 100; // ms
+
+    private final PageGeometry geometry = new PageGeometry();
+    private final PagerWindow window = new PagerWindow();
+    private final TargetPageSelector selector = new TargetPageSelector();
+
+    private final PagerItemList items = new PagerItemList();
+    private final PagerItemTable table = new PagerItemTable();
+    private final ItemCallback callback = new ItemCallback();
+
+    private final int count;
+    private final int clientWidth;
+    private final int touchSlop;
+    private final int maximumVelocity;
+
+    // Samples of the current gesture (for velocity estimation)
+    private long[] sampleTimes = new long[64];
+    private float[] sampleXs = new float[64];
+    private int sampleCount;
+
+    private int currentItem;
+    private int scrollX;
+
+    private boolean dragging;
+    private float initialMotionX;
+    private float lastMotionX;
+
+    // Last release (reported after the event has been timed)
+    private int releaseItem = -1;
+    private int releaseVelocity;
+    private int releaseScrollX;
+
+    // Statistics
+    private int gestures;
+    private int populates;
+    private int created;
+    private int destroyed;
+    private long settleFrames;
+
+    private long[] eventNanos = new long[256];
+    private int events;
+
+    public GestureReplay(int count, int columns, int clientWidth, float density) {
+        this.count = count;
+        this.clientWidth = clientWidth;
+
+        touchSlop = (int) (TOUCH_SLOP * density);
+        maximumVelocity = (int) (MAX_FLING_VELOCITY * density);
+
+        selector.setFlingDistance((int) (MIN_DISTANCE_FOR_FLING * density));
+        selector.setMinimumVelocity((int) (MIN_FLING_VELOCITY * density));
+        selector.setDensity(density);
+
+        geometry.update(clientWidth, columns, 0);
+        populate(0);
+    }
+
+    //
+    // Public methods
+    //
+
+    /**
+     * Replay a single pointer sample.
+     */
+    public void onSample(long time, int action, float x) {
+        final long start = System.nanoTime();
+
+        switch (action) {
+            case ACTION_DOWN:
+                dragging = false;
+                initialMotionX = lastMotionX = x;
+
+                sampleCount = 0;
+                addSample(time, x);
+                break;
+            case ACTION_MOVE:
+                addSample(time, x);
+
+                if (!dragging && Math.abs(x - initialMotionX) > touchSlop) {
+                    dragging = true;
+                    lastMotionX = x - initialMotionX > 0 ? initialMotionX + touchSlop : initialMotionX - touchSlop;
+                }
+
+                if (dragging) {
+                    performDrag(x);
+                }
+                break;
+            case ACTION_UP:
+                addSample(time, x);
+
+                if (dragging) {
+                    release(x);
+                }
+
+                dragging = false;
+                break;
+            case ACTION_CANCEL:
+                if (dragging) {
+                    settle(currentItem, 0);
+                    gestures++;
+                }
+
+                dragging = false;
+                break;
+        }
+
+        recordEvent(System.nanoTime() - start);
+
+        if (action == ACTION_UP && releaseItem >= 0) {
+            System.out.println(String.format(Locale.US,
+                "gesture %d: %d -> %d (velocity %d px/s, scrollX %d)",
+                gestures - 1, releaseItem, currentItem, releaseVelocity, releaseScrollX
+            ));
+
+            releaseItem = -1;
+        }
+    }
+
+    public void replay(Reader reader) throws IOException {
+        final BufferedReader lines = new BufferedReader(reader);
+        String line;
+
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+
+            if (line.length() == 0 || line.charAt(0) == '#') {
+                continue;
+            }
+
+            final String[] fields = line.split(",");
+
+            onSample(
+                Long.parseLong(fields[0].trim()),
+                Integer.parseInt(fields[1].trim()),
+                Float.parseFloat(fields[2].trim())
+            );
+        }
+    }
+
+    public void report() {
+        final long[] sorted = Arrays.copyOf(eventNanos, events);
+        Arrays.sort(sorted);
+
+        System.out.println(String.format(Locale.US,
+            "events: %d, gestures: %d, populates: %d (created %d, destroyed %d), settle frames: %d",
+            events, gestures, populates, created, destroyed, settleFrames
+        ));
+
+        if (events > 0) {
+            System.out.println(String.format(Locale.US,
+                "event time (ns): p50 %d, p90 %d, p99 %d, max %d",
+                sorted[events / 2], sorted[(int) (events * 0.9)], sorted[(int) (events * 0.99)], sorted[events - 1]
+            ));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = 1000;
+        int columns = 1;
+        int width = 1080;
+        float density = 2.625f;
+        String trace = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--count".equals(args[i])) {
+                count = Integer.parseInt(args[++i]);
+            } else if ("--columns".equals(args[i])) {
+                columns = Integer.parseInt(args[++i]);
+            } else if ("--width".equals(args[i])) {
+                width = Integer.parseInt(args[++i]);
+            } else if ("--density".equals(args[i])) {
+                density = Float.parseFloat(args[++i]);
+            } else {
+                trace = args[i];
+            }
+        }
+
+        final GestureReplay replay = new GestureReplay(count, columns, width, density);
+        final Reader reader = trace != null ?
+            new FileReader(trace) :
+            new InputStreamReader(GestureReplay.class.getResourceAsStream(SAMPLE_TRACE), "UTF-8");
+
+        try {
+            replay.replay(reader);
+        } finally {
+            reader.close();
+        }
+
+        replay.report();
+    }
+
+    //
+    // Private methods
+    //
+
+    private void performDrag(float x) {
+        final float deltaX = lastMotionX - x;
+        lastMotionX = x;
+
+        // Clamp to the populated window, as ColumnPager does
+        final int leftBound = geometry.offsetOf(items.getFirstPosition());
+        final int rightBound = geometry.getEndScrollOffset(items.getLastPosition());
+
+        scrollX = (int) Math.max(leftBound, Math.min(scrollX + deltaX, rightBound));
+    }
+
+    private void release(float x) {
+        final int velocity = (int) Math.max(-maximumVelocity, Math.min(estimateVelocity(), maximumVelocity));
+        final int target = selector.select(geometry, scrollX, currentItem, velocity, (int) (x - initialMotionX), count);
+
+        releaseItem = currentItem;
+        releaseVelocity = velocity;
+        releaseScrollX = scrollX;
+
+        settle(target, velocity);
+        gestures++;
+    }
+
+    /**
+     * Settle on `target` on the fake clock, populating once the settle has completed.
+     */
+    private void settle(int target, int velocity) {
+        geometry.setAnchorPosition(target);
+
+        final int destX = Math.max(0, Math.min(geometry.offsetOf(target), geometry.getEndScrollOffset(count - 1)));
+        final int dx = destX - scrollX;
+
+        int duration;
+
+        if (velocity != 0 && Math.abs(dx) > clientWidth) {
+            duration = selector.getSplineFlingDuration(velocity);
+        } else if (velocity != 0) {
+            duration = Math.min(4 * Math.round(1000f * clientWidth / Math.abs(velocity)), MAX_SETTLE_DURATION);
+        } else {
+            duration = Math.min((int) ((Math.abs(dx) / (float) (geometry.getPageWidth() + geometry.getMargin()) + 1) * 100), MAX_SETTLE_DURATION);
+        }
+
+        // Advance the clock frame by frame (page scrolled lookups only, populate is pending)
+        final int startX = scrollX;
+
+        for (int t = FRAME_INTERVAL; t < duration; t += FRAME_INTERVAL) {
+            final float fraction = 1f - (1f - (float) t / duration) * (1f - (float) t / duration);
+
+            scrollX = startX + (int) (dx * fraction);
+            geometry.positionAt(scrollX);
+
+            settleFrames++;
+        }
+
+        scrollX = destX;
+        populate(target);
+    }
+
+    private void populate(int position) {
+        currentItem = position;
+        geometry.setAnchorPosition(position);
+
+        window.update(geometry, position, count, OFFSCREEN_PAGE_LIMIT);
+        window.populate(items, callback);
+
+        populates++;
+        created += window.getCreatedCount();
+        destroyed += window.getDestroyedCount();
+    }
+
+    private void addSample(long time, float x) {
+        if (sampleCount == sampleTimes.length) {
+            sampleTimes = Arrays.copyOf(sampleTimes, sampleCount * 2);
+            sampleXs = Arrays.copyOf(sampleXs, sampleCount * 2);
+        }
+
+        sampleTimes[sampleCount] = time;
+        sampleXs[sampleCount] = x;
+        sampleCount++;
+    }
+
+    /**
+     * Estimate the release velocity (in pixels per second) with a least squares fit over the
+     * samples in the last {@link #VELOCITY_HORIZON} ms.
+     */
+    private float estimateVelocity() {
+        if (sampleCount < 2) {
+            return 0;
+        }
+
+        final long end = sampleTimes[sampleCount - 1];
+
+        double sumT = 0, sumX = 0, sumTT = 0, sumTX = 0;
+        int n = 0;
+
+        for (int i = sampleCount - 1; i >= 0 && end - sampleTimes[i] <= VELOCITY_HORIZON; i--) {
+            final double t = (sampleTimes[i] - end) / 1000.0;
+
+            sumT += t;
+            sumX += sampleXs[i];
+            sumTT += t * t;
+            sumTX += t * sampleXs[i];
+            n++;
+        }
+
+        final double denominator = n * sumTT - sumT * sumT;
+
+        if (n < 2 || denominator == 0) {
+            return 0;
+        }
+
+        return (float) ((n * sumTX - sumT * sumX) / denominator);
+    }
+
+    private void recordEvent(long nanos) {
+        if (events == eventNanos.length) {
+            eventNanos = Arrays.copyOf(eventNanos, events * 2);
+        }
+
+        eventNanos[events++] = nanos;
+    }
+
+    private class ItemCallback implements PagerWindow.Callback {
+        @Override
+        public void createItem(int position, int index) {
+            final PagerItem item = table.acquire();
+
+            item.setPosition(position);
+            item.setIndex(index);
+            item.setWidth(geometry.widthOf(position));
+
+            items.put(item);
+        }
+
+        @Override
+        public void destroyItem(int position) {
+            table.release(items.remove(position));
+        }
+    }
+}
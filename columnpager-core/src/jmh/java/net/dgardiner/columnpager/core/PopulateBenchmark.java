@@ -0,0 +1,162 @@
+package net.dgardiner.columnpager.core;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the pager window across adapter sizes, reporting the number of items created
+ * and destroyed by each scenario.
+ *
+ * <ul>
+ *     <li>{@code step}: move the current item by one page (reversing at either end)</li>
+ *     <li>{@code jump}: move the current item to a random position</li>
+ *     <li>{@code dataSetChanged}: invalidate page widths and repopulate in place</li>
+ * </ul>
+ *
+ * <p>Populate churn bounds of the pager itself are asserted by {@code ColumnPagerPopulateTest}
+ * in the {@code columnpager} module.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PopulateBenchmark {
+    private static final int CLIENT_WIDTH = 1080;
+    private static final int MARGIN = 8;
+
+    private static final int OFFSCREEN_PAGE_LIMIT = 1;
+
+    private static final int JUMPS = 1024;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int count;
+
+    @Param({"1", "4"})
+    public int columns;
+
+    @Param({"step", "jump", "dataSetChanged"})
+    public String scenario;
+
+    private final PagerItemList items = new PagerItemList();
+    private final PagerItemTable table = new PagerItemTable();
+    private final PagerWindow window = new PagerWindow();
+    private final PageGeometry geometry = new PageGeometry();
+
+    private final ItemCallback callback = new ItemCallback();
+
+    private int[] jumps;
+    private int jump;
+
+    private int currentItem;
+    private int direction;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        geometry.update(CLIENT_WIDTH, columns, MARGIN);
+
+        final Random random = new Random(42);
+        jumps = new int[JUMPS];
+
+        for (int i = 0; i < JUMPS; i++) {
+            jumps[i] = random.nextInt(count);
+        }
+
+        // Populate the initial window
+        currentItem = 0;
+        direction = 1;
+
+        populate();
+    }
+
+    @TearDown(Level.Iteration)
+    public void release() {
+        // Release items
+        while (!items.isEmpty()) {
+            callback.destroyItem(items.getFirstPosition());
+        }
+
+        items.clear();
+    }
+
+    @Benchmark
+    public int populate(Counters counters) {
+        if ("step".equals(scenario)) {
+            if (currentItem + direction < 0 || currentItem + direction >= count) {
+                direction = -direction;
+            }
+
+            currentItem = Math.max(0, Math.min(currentItem + direction, count - 1));
+        } else if ("jump".equals(scenario)) {
+            jump = (jump + 1) & (JUMPS - 1);
+            currentItem = jumps[jump];
+        } else {
+            geometry.invalidateWidths();
+            table.updateWidths(geometry);
+        }
+
+        populate();
+
+        counters.instantiated += window.getCreatedCount();
+        counters.destroyed += window.getDestroyedCount();
+
+        return items.size();
+    }
+
+    private void populate() {
+        geometry.setAnchorPosition(currentItem);
+
+        window.update(geometry, currentItem, count, OFFSCREEN_PAGE_LIMIT);
+        window.populate(items, callback);
+    }
+
+    /**
+     * Number of items instantiated and destroyed, reported alongside the timings.
+     */
+    @AuxCounters
+    @State(Scope.Thread)
+    public static class Counters {
+        public long instantiated;
+        public long destroyed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            instantiated = 0;
+            destroyed = 0;
+        }
+    }
+
+    private class ItemCallback implements PagerWindow.Callback {
+        @Override
+        public void createItem(int position, int index) {
+            final PagerItem item = table.acquire();
+
+            item.setPosition(position);
+            item.setIndex(index);
+            item.setWidth(geometry.widthOf(position));
+
+            items.put(item);
+        }
+
+        @Override
+        public void destroyItem(int position) {
+            table.release(items.remove(position));
+        }
+    }
+}
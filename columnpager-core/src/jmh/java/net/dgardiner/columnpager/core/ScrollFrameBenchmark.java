@@ -0,0 +1,155 @@
+package net.dgardiner.columnpager.core;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the core work done on every drag and settle frame (drag bounds, scroll position
+ * lookup and page offset), plus the window populate done when the scroll crosses into another
+ * page.
+ *
+ * <p>{@code ScrollFrameAllocationTest} checks that the same frame path doesn't allocate. Only
+ * the {@code net.dgardiner.columnpager.core} half of the frame path is covered, the view half
+ * ({@code onPageScrolled} listener dispatch, {@code PagerTrace} sections and counters, adapter
+ * and child updates during populate) needs Android and isn't benchmarked here.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ScrollFrameBenchmark {
+    private static final int CLIENT_WIDTH = 1080;
+    private static final int MARGIN = 8;
+
+    private static final int OFFSCREEN_PAGE_LIMIT = 1;
+
+    // Pixels scrolled per frame
+    private static final int FRAME_DELTA = 37;
+
+    @Param({"10", "100000"})
+    public int count;
+
+    @Param({"1", "4"})
+    public int columns;
+
+    @Param({"true", "false"})
+    public boolean uniform;
+
+    private final PagerItemList items = new PagerItemList();
+    private final PagerItemTable table = new PagerItemTable();
+    private final PagerWindow window = new PagerWindow();
+    private final PageGeometry geometry = new PageGeometry();
+
+    private final ItemCallback callback = new ItemCallback();
+
+    private int currentItem;
+    private int scrollX;
+    private int scrollRange;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        geometry.update(CLIENT_WIDTH, columns, MARGIN);
+
+        if (!uniform) {
+            geometry.setWidthSource(new VariableWidthSource(count));
+        }
+
+        // Populate window around the current item
+        populate(count / 2);
+
+        scrollRange = Math.max(1, geometry.getEndScrollOffset(count - 1));
+        scrollX = geometry.offsetOf(currentItem);
+    }
+
+    @Benchmark
+    public int frame() {
+        scrollX = (scrollX + FRAME_DELTA) % scrollRange;
+
+        // performDrag: drag bounds of the populated window
+        final float leftBound = geometry.offsetOf(items.first().getPosition());
+        final float rightBound = geometry.getEndScrollOffset(items.last().getPosition());
+
+        final int x = (int) Math.max(leftBound, Math.min(scrollX, rightBound));
+
+        // pageScrolled: position and offset of the current scroll position
+        final int position = Math.max(0, Math.min(geometry.positionAt(x), count - 1));
+
+        // populate: the scroll has crossed into another page
+        if (position != currentItem) {
+            populate(position);
+        }
+
+        final PagerItem item = items.get(position);
+
+        return x - geometry.offsetOf(position) + (item != null ? item.getWidth() : 0);
+    }
+
+    private void populate(int newCurrentItem) {
+        currentItem = newCurrentItem;
+
+        // Padding is applied to the columns displayed from the current item
+        geometry.setAnchorPosition(currentItem);
+
+        // Pages prefetched in the scroll direction are kept
+        window.update(geometry, currentItem, count, OFFSCREEN_PAGE_LIMIT);
+        window.keep(1, columns);
+        window.populate(items, callback);
+
+        table.updateWidths(geometry);
+    }
+
+    private class ItemCallback implements PagerWindow.Callback {
+        @Override
+        public void createItem(int position, int index) {
+            final PagerItem item = table.acquire();
+
+            item.setPosition(position);
+            item.setIndex(index);
+            item.setWidth(geometry.widthOf(position));
+
+            items.put(item);
+        }
+
+        @Override
+        public void destroyItem(int position) {
+            table.release(items.remove(position));
+        }
+    }
+
+    private static class VariableWidthSource implements PageGeometry.WidthSource {
+        private final int count;
+
+        VariableWidthSource(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public boolean hasVariableWidths() {
+            return true;
+        }
+
+        @Override
+        public float getPageWidthFraction(int position) {
+            return (position % 3) == 0 ? 2f : 1f;
+        }
+    }
+}
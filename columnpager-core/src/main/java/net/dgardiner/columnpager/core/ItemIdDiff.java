@@ -0,0 +1,404 @@
+package net.dgardiner.columnpager.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Calculates the operations required to convert one list of stable item IDs into another.
+ *
+ * <p>The longest common subsequence of the two lists is found with Myers' linear-space diff
+ * algorithm. Items outside of the common subsequence that exist in both lists are reported as
+ * moves (one per item), so their pages can be kept. Items in the common subsequence keep their
+ * relative order and are never moved. IDs must be unique within each list.</p>
+ *
+ * <p>Operations are reported in the order they should be applied, positions of each operation
+ * are relative to the list after all previous operations have been applied.</p>
+ */
+public class ItemIdDiff {
+    public static final int OPERATION_INSERT = 0;
+    public static final int OPERATION_REMOVE = 1;
+    public static final int OPERATION_MOVE = 2;
+
+    private int[] types = new int[16];
+    private int[] firsts = new int[16];
+    private int[] seconds = new int[16];
+    private int count;
+
+    private ItemIdDiff() {
+
+    }
+
+    //
+    // Properties
+    //
+
+    /**
+     * @return Number of operations
+     */
+    public int getOperationCount() {
+        return count;
+    }
+
+    /**
+     * @return Type of the operation at `index` ({@link #OPERATION_INSERT},
+     *         {@link #OPERATION_REMOVE} or {@link #OPERATION_MOVE})
+     */
+    public int getOperationType(int index) {
+        return types[index];
+    }
+
+    /**
+     * @return Start position (insert, remove) or source position (move) of the operation at `index`
+     */
+    public int getOperationFirst(int index) {
+        return firsts[index];
+    }
+
+    /**
+     * @return Item count (insert, remove) or target position (move) of the operation at `index`
+     */
+    public int getOperationSecond(int index) {
+        return seconds[index];
+    }
+
+    //
+    // Public methods
+    //
+
+    /**
+     * Dispatch the operations to `callback`, in order.
+     *
+     * @param callback Callback that will receive the operations
+     */
+    public void dispatch(Callback callback) {
+        for (int i = 0; i < count; i++) {
+            switch (types[i]) {
+                case OPERATION_INSERT:
+                    callback.onInserted(firsts[i], seconds[i]);
+                    break;
+                case OPERATION_REMOVE:
+                    callback.onRemoved(firsts[i], seconds[i]);
+                    break;
+                case OPERATION_MOVE:
+                    callback.onMoved(firsts[i], seconds[i]);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Calculate the operations required to convert `oldIds` into `newIds`.
+     *
+     * @param oldIds Current item IDs
+     * @param newIds Updated item IDs
+     * @return Diff result
+     * @throws IllegalArgumentException if either list contains duplicate IDs
+     */
+    public static ItemIdDiff calculate(long[] oldIds, long[] newIds) {
+        final ItemIdDiff diff = new ItemIdDiff();
+
+        // Build map of new IDs
+        final HashMap<Long, Integer> newIndexes = new HashMap<Long, Integer>(newIds.length * 2);
+
+        for (int i = 0; i < newIds.length; i++) {
+            if (newIndexes.put(newIds[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate item ID: " + newIds[i]);
+            }
+        }
+
+        // Find the longest common subsequence
+        final boolean[] oldKept = new boolean[oldIds.length];
+        final boolean[] newKept = new boolean[newIds.length];
+
+        findCommonSubsequence(oldIds, newIds, oldKept, newKept);
+
+        // Remove items that no longer exist (from the end, so positions stay valid)
+        final long[] current = new long[Math.max(oldIds.length, newIds.length)];
+        final HashMap<Long, Boolean> oldPresent = new HashMap<Long, Boolean>(oldIds.length * 2);
+        int size = 0;
+
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldPresent.put(oldIds[i], oldKept[i]) != null) {
+                throw new IllegalArgumentException("Duplicate item ID: " + oldIds[i]);
+            }
+        }
+
+        for (int i = oldIds.length - 1; i >= 0; i--) {
+            if (!oldKept[i] && !newIndexes.containsKey(oldIds[i])) {
+                diff.addRemove(i);
+            }
+        }
+
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldKept[i] || newIndexes.containsKey(oldIds[i])) {
+                current[size++] = oldIds[i];
+            }
+        }
+
+        // Place items in their new order, `anchor` is the position of the last placed item.
+        // Items in the common subsequence are already in order and stay in place, every other
+        // item is inserted or moved (once) directly after the last placed item.
+        int anchor = -1;
+
+        for (int i = 0; i < newIds.length; i++) {
+            final long target = newIds[i];
+            final Boolean kept = oldPresent.get(target);
+
+            if (kept == null) {
+                // New item
+                size = insert(current, size, anchor + 1, target);
+                diff.addInsert(anchor + 1);
+                anchor++;
+            } else if (kept) {
+                // Item is in the common subsequence, items that haven't been placed yet may
+                // precede it
+                anchor = indexOf(current, size, target, anchor + 1);
+            } else {
+                // Moved item
+                final int from = indexOf(current, size, target, 0);
+                final int to = from > anchor ? anchor + 1 : anchor;
+
+                if (from != to) {
+                    move(current, from, to);
+                    diff.addMove(from, to);
+                }
+
+                anchor = to;
+            }
+        }
+
+        return diff;
+    }
+
+    //
+    // Private methods
+    //
+
+    private void add(int type, int first, int second) {
+        if (count == types.length) {
+            types = Arrays.copyOf(types, count * 2);
+            firsts = Arrays.copyOf(firsts, count * 2);
+            seconds = Arrays.copyOf(seconds, count * 2);
+        }
+
+        types[count] = type;
+        firsts[count] = first;
+        seconds[count] = second;
+        count++;
+    }
+
+    private void addInsert(int position) {
+        // Merge with the previous insert if this continues it
+        if (count > 0 && types[count - 1] == OPERATION_INSERT &&
+            firsts[count - 1] + seconds[count - 1] == position) {
+            seconds[count - 1]++;
+            return;
+        }
+
+        add(OPERATION_INSERT, position, 1);
+    }
+
+    private void addRemove(int position) {
+        // Removals are added from the end, merge with the previous removal if adjacent
+        if (count > 0 && types[count - 1] == OPERATION_REMOVE && firsts[count - 1] == position + 1) {
+            firsts[count - 1] = position;
+            seconds[count - 1]++;
+            return;
+        }
+
+        add(OPERATION_REMOVE, position, 1);
+    }
+
+    private void addMove(int from, int to) {
+        add(OPERATION_MOVE, from, to);
+    }
+
+    private static int indexOf(long[] items, int size, long id, int start) {
+        for (int i = start; i < size; i++) {
+            if (items[i] == id) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int insert(long[] items, int size, int position, long id) {
+        System.arraycopy(items, position, items, position + 1, size - position);
+        items[position] = id;
+
+        return size + 1;
+    }
+
+    private static void move(long[] items, int from, int to) {
+        final long id = items[from];
+
+        if (from < to) {
+            System.arraycopy(items, from + 1, items, from, to - from);
+        } else {
+            System.arraycopy(items, to, items, to + 1, from - to);
+        }
+
+        items[to] = id;
+    }
+
+    private static void findCommonSubsequence(long[] a, long[] b, boolean[] aKept, boolean[] bKept) {
+        final int max = a.length + b.length + Math.abs(a.length - b.length);
+        final int[] forward = new int[max * 2 + 2];
+        final int[] backward = new int[max * 2 + 2];
+        final Snake snake = new Snake();
+
+        // Ranges are stored as [aStart, aEnd, bStart, bEnd]
+        final ArrayList<int[]> stack = new ArrayList<int[]>();
+        stack.add(new int[] { 0, a.length, 0, b.length });
+
+        while (!stack.isEmpty()) {
+            final int[] range = stack.remove(stack.size() - 1);
+
+            if (!middleSnake(a, b, range[0], range[1], range[2], range[3], forward, backward, max + 1, snake)) {
+                continue;
+            }
+
+            // Convert snake to list coordinates
+            final int x = snake.x + range[0];
+            final int y = snake.y + range[2];
+
+            for (int k = 0; k < snake.size; k++) {
+                aKept[x + k] = true;
+                bKept[y + k] = true;
+            }
+
+            // Split range around the snake
+            if (snake.reverse) {
+                stack.add(new int[] { range[0], x, range[2], y });
+            } else if (snake.removal) {
+                stack.add(new int[] { range[0], x - 1, range[2], y });
+            } else {
+                stack.add(new int[] { range[0], x, range[2], y - 1 });
+            }
+
+            if (!snake.reverse) {
+                stack.add(new int[] { x + snake.size, range[1], y + snake.size, range[3] });
+            } else if (snake.removal) {
+                stack.add(new int[] { x + snake.size + 1, range[1], y + snake.size, range[3] });
+            } else {
+                stack.add(new int[] { x + snake.size, range[1], y + snake.size + 1, range[3] });
+            }
+        }
+    }
+
+    private static boolean middleSnake(long[] a, long[] b, int aStart, int aEnd, int bStart, int bEnd,
+                                       int[] forward, int[] backward, int kOffset, Snake snake) {
+        final int n = aEnd - aStart;
+        final int m = bEnd - bStart;
+
+        if (n < 1 || m < 1) {
+            return false;
+        }
+
+        final int delta = n - m;
+        final int dLimit = (n + m + 1) / 2;
+
+        Arrays.fill(forward, kOffset - dLimit - 1, kOffset + dLimit + 1, 0);
+        Arrays.fill(backward, kOffset - dLimit - 1 + delta, kOffset + dLimit + 1 + delta, n);
+
+        final boolean checkInForward = delta % 2 != 0;
+
+        for (int d = 0; d <= dLimit; d++) {
+            // Forward search
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                boolean removal;
+
+                if (k == -d || (k != d && forward[kOffset + k - 1] < forward[kOffset + k + 1])) {
+                    x = forward[kOffset + k + 1];
+                    removal = false;
+                } else {
+                    x = forward[kOffset + k - 1] + 1;
+                    removal = true;
+                }
+
+                int y = x - k;
+
+                while (x < n && y < m && a[aStart + x] == b[bStart + y]) {
+                    x++;
+                    y++;
+                }
+
+                forward[kOffset + k] = x;
+
+                if (checkInForward && k >= delta - d + 1 && k <= delta + d - 1 &&
+                    forward[kOffset + k] >= backward[kOffset + k]) {
+                    snake.x = backward[kOffset + k];
+                    snake.y = snake.x - k;
+                    snake.size = forward[kOffset + k] - backward[kOffset + k];
+                    snake.removal = removal;
+                    snake.reverse = false;
+                    return true;
+                }
+            }
+
+            // Backward search
+            for (int k = -d; k <= d; k += 2) {
+                final int backwardK = k + delta;
+                int x;
+                boolean removal;
+
+                if (backwardK == d + delta || (backwardK != -d + delta &&
+                    backward[kOffset + backwardK - 1] < backward[kOffset + backwardK + 1])) {
+                    x = backward[kOffset + backwardK - 1];
+                    removal = false;
+                } else {
+                    x = backward[kOffset + backwardK + 1] - 1;
+                    removal = true;
+                }
+
+                int y = x - backwardK;
+
+                while (x > 0 && y > 0 && a[aStart + x - 1] == b[bStart + y - 1]) {
+                    x--;
+                    y--;
+                }
+
+                backward[kOffset + backwardK] = x;
+
+                if (!checkInForward && k + delta >= -d && k + delta <= d &&
+                    forward[kOffset + backwardK] >= backward[kOffset + backwardK]) {
+                    snake.x = backward[kOffset + backwardK];
+                    snake.y = snake.x - backwardK;
+                    snake.size = forward[kOffset + backwardK] - backward[kOffset + backwardK];
+                    snake.removal = removal;
+                    snake.reverse = true;
+                    return true;
+                }
+            }
+        }
+
+        throw new IllegalStateException("Unable to find a middle snake");
+    }
+
+    //
+    // Classes
+    //
+
+    /**
+     * Receives the operations of a diff.
+     */
+    public interface Callback {
+        void onInserted(int position, int count);
+
+        void onRemoved(int position, int count);
+
+        void onMoved(int fromPosition, int toPosition);
+    }
+
+    private static class Snake {
+        int x;
+        int y;
+        int size;
+
+        boolean removal;
+        boolean reverse;
+    }
+}
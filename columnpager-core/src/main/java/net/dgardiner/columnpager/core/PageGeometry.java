@@ -0,0 +1,572 @@
+package net.dgardiner.columnpager.core;
+
+/**
+ * Closed-form model of page widths and offsets.
+ *
+ * <p>Pages are `floor(clientWidth / columns)` pixels wide, separated by the page margin. Any
+ * remaining pixels are distributed as padding across the pages at the head and tail of the
+ * columns displayed from the anchor position (the current item), so the visible columns fill
+ * the client width.</p>
+ *
+ * <p>The widths form at most five runs of equally sized pages (before the anchor, padded head,
+ * middle, padded tail and after the columns), so the offset of a position and the position at
+ * an offset are both calculated directly from the run boundaries.</p>
+ *
+ * <p>With {@link #REMAINDER_MODULO} the remaining pixels are instead given to the pages whose
+ * position modulo the column count is less than the remainder, so widths don't depend on the
+ * anchor and any `columns` consecutive pages still fill the client width.</p>
+ *
+ * <p>If a {@link WidthSource} has variable widths and reports pages that aren't exactly one
+ * column wide, page widths (plus margins) are stored in a Fenwick tree instead, offset and
+ * position lookups are then O(log n). Remaining pixels aren't distributed to variable width
+ * pages.</p>
+ *
+ * <p>Offsets are calculated as longs and saturated to the int range of view scroll positions,
+ * pages starting beyond {@link Integer#MAX_VALUE} pixels can't be scrolled to.</p>
+ */
+public class PageGeometry {
+    /**
+     * Remaining pixels pad the head and tail columns displayed from the anchor position.
+     */
+    public static final int REMAINDER_ANCHORED = 0;
+
+    /**
+     * Remaining pixels pad pages by their position modulo the column count.
+     */
+    public static final int REMAINDER_MODULO = 1;
+
+    private static final int RUN_COUNT = 5;
+
+    private int clientWidth;
+    private int columns = 1;
+    private int margin;
+    private int anchorPosition;
+    private int remainderMode = REMAINDER_ANCHORED;
+
+    private int pageWidth;
+    private int remainingWidth;
+    private int pad;
+
+    // Start position, start offset and page width of each run
+    private final int[] runPositions = new int[RUN_COUNT];
+    private final long[] runOffsets = new long[RUN_COUNT];
+    private final int[] runWidths = new int[RUN_COUNT];
+
+    // Variable page widths
+    private WidthSource widthSource;
+    private boolean widthsValid;
+    private boolean uniform = true;
+
+    private int count;
+    private int[] widths;
+    private long[] tree;
+
+    //
+    // Properties
+    //
+
+    public int getClientWidth() {
+        return clientWidth;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getMargin() {
+        return margin;
+    }
+
+    /**
+     * @return Width of an unpadded page
+     */
+    public int getPageWidth() {
+        return pageWidth;
+    }
+
+    /**
+     * @return Pixels remaining after dividing the client width into columns
+     */
+    public int getRemainingWidth() {
+        return remainingWidth;
+    }
+
+    /**
+     * @return true if every page is exactly one column wide
+     */
+    public boolean isUniform() {
+        ensureWidths();
+        return uniform;
+    }
+
+    public int getAnchorPosition() {
+        return anchorPosition;
+    }
+
+    /**
+     * Set the position of the first displayed column, padding is applied to the columns
+     * starting at this position.
+     *
+     * @param position Anchor position
+     */
+    public void setAnchorPosition(int position) {
+        if (anchorPosition == position) {
+            return;
+        }
+
+        anchorPosition = position;
+        updateRuns();
+    }
+
+    public int getRemainderMode() {
+        return remainderMode;
+    }
+
+    /**
+     * Set how pixels remaining after dividing the client width into columns are distributed.
+     *
+     * @param mode {@link #REMAINDER_ANCHORED} or {@link #REMAINDER_MODULO}
+     * @return true if the mode changed
+     */
+    public boolean setRemainderMode(int mode) {
+        if (mode != REMAINDER_ANCHORED && mode != REMAINDER_MODULO) {
+            throw new IllegalArgumentException("Unknown remainder mode: " + mode);
+        }
+
+        if (remainderMode == mode) {
+            return false;
+        }
+
+        remainderMode = mode;
+        return true;
+    }
+
+    /**
+     * Set the source of page width fractions, if null every page is one column wide.
+     *
+     * @param source Width source
+     */
+    public void setWidthSource(WidthSource source) {
+        widthSource = source;
+        widthsValid = false;
+    }
+
+    //
+    // Public methods
+    //
+
+    /**
+     * Discard the cached page widths, they will be rebuilt from the {@link WidthSource} on
+     * the next lookup.
+     */
+    public void invalidateWidths() {
+        widthsValid = false;
+    }
+
+    /**
+     * Refresh the widths of `itemCount` pages starting at `start` (e.g. after the pages have
+     * changed), without rebuilding the widths of every page.
+     *
+     * <p>Pages that change to one column wide keep their variable width layout until the
+     * widths are next rebuilt.</p>
+     *
+     * @param start First position
+     * @param itemCount Number of positions
+     */
+    public void invalidateWidths(int start, int itemCount) {
+        if (!widthsValid) {
+            return;
+        }
+
+        if (widthSource == null || widthSource.getCount() != count) {
+            // Pages have been added or removed
+            widthsValid = false;
+            return;
+        }
+
+        if (!widthSource.hasVariableWidths()) {
+            // Every page is one column wide
+            widthsValid = uniform;
+            return;
+        }
+
+        final int end = (int) Math.min((long) start + itemCount, count);
+
+        for (int position = Math.max(0, start); position < end; position++) {
+            if (uniform) {
+                if (widthSource.getPageWidthFraction(position) != 1f) {
+                    // Page is no longer one column wide, switch to variable widths
+                    widthsValid = false;
+                    return;
+                }
+
+                continue;
+            }
+
+            final int delta = variableWidthOf(position) - widths[position];
+
+            if (delta == 0) {
+                continue;
+            }
+
+            widths[position] += delta;
+
+            for (int i = position + 1; i <= count; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+    }
+
+    /**
+     * Update the dimensions of the model.
+     *
+     * @param clientWidth Width available to pages (excluding padding)
+     * @param columns Number of columns displayed
+     * @param margin Margin between pages
+     * @return true if the dimensions changed
+     */
+    public boolean update(int clientWidth, int columns, int margin) {
+        columns = Math.max(1, columns);
+
+        if (this.clientWidth == clientWidth && this.columns == columns && this.margin == margin) {
+            return false;
+        }
+
+        this.clientWidth = clientWidth;
+        this.columns = columns;
+        this.margin = margin;
+
+        // Calculate page dimensions
+        pageWidth = (int) Math.floor(((float) clientWidth) / columns);
+        remainingWidth = clientWidth - (pageWidth * columns);
+        pad = remainingWidth > 0 ? (int) Math.ceil(((float) remainingWidth) / columns) : 0;
+
+        updateRuns();
+
+        widthsValid = false;
+        return true;
+    }
+
+    /**
+     * @param position Adapter position
+     * @return Width of the page at `position`
+     */
+    public int widthOf(int position) {
+        ensureWidths();
+
+        if (!uniform) {
+            return position >= 0 && position < count ? widths[position] : pageWidth;
+        }
+
+        if (remainderMode == REMAINDER_MODULO) {
+            return pageWidth + (floorMod(position, columns) < remainingWidth ? 1 : 0);
+        }
+
+        return runWidths[runOf(position)];
+    }
+
+    /**
+     * @param position Adapter position
+     * @return Scroll offset of the left edge of the page at `position`
+     */
+    public int offsetOf(int position) {
+        return saturate(offset(position));
+    }
+
+    /**
+     * @param scrollX Scroll offset
+     * @return Position of the page containing `scrollX` (including its trailing margin)
+     */
+    public int positionAt(int scrollX) {
+        return position(scrollX);
+    }
+
+    /**
+     * @param position Adapter position
+     * @return Last position visible when the page at `position` is scrolled to the left edge
+     */
+    public int getLastVisiblePosition(int position) {
+        if (isUniform()) {
+            return position + columns - 1;
+        }
+
+        return Math.max(position, position(offset(position) + clientWidth - 1));
+    }
+
+    /**
+     * @param position Adapter position
+     * @return Scroll offset at which the page at `position` is the last visible page
+     */
+    public int getEndScrollOffset(int position) {
+        if (isUniform()) {
+            return saturate(offset(position - columns + 1));
+        }
+
+        return saturate(offset(position) + widthOf(position) - clientWidth);
+    }
+
+    @Override
+    public String toString() {
+        return "<PageGeometry clientWidth: " + clientWidth + ", columns: " + columns + ", margin: " + margin +
+            ", anchorPosition: " + anchorPosition + ", remainderMode: " + remainderMode + ", pageWidth: " + pageWidth + ", pad: " + pad +
+            ", uniform: " + uniform + ">";
+    }
+
+    //
+    // Private methods
+    //
+
+    private long offset(int position) {
+        ensureWidths();
+
+        if (!uniform) {
+            return variableOffsetOf(position);
+        }
+
+        if (remainderMode == REMAINDER_MODULO) {
+            final long group = floorDiv(position, columns);
+            final int column = (int) (position - group * columns);
+
+            return group * (clientWidth + (long) columns * margin) + (long) column * (pageWidth + margin) + Math.min(column, remainingWidth);
+        }
+
+        final int run = runOf(position);
+
+        return runOffsets[run] + (long) (position - runPositions[run]) * (runWidths[run] + margin);
+    }
+
+    private int position(long scrollX) {
+        ensureWidths();
+
+        if (!uniform) {
+            return variablePositionAt(scrollX);
+        }
+
+        if (remainderMode == REMAINDER_MODULO) {
+            return moduloPositionAt(scrollX);
+        }
+
+        int run = RUN_COUNT - 1;
+
+        while (run > 0 && scrollX < runOffsets[run]) {
+            run--;
+        }
+
+        final int stride = runWidths[run] + margin;
+
+        if (stride <= 0) {
+            return runPositions[run];
+        }
+
+        return saturate(runPositions[run] + floorDiv(scrollX - runOffsets[run], stride));
+    }
+
+    private void ensureWidths() {
+        if (widthsValid) {
+            return;
+        }
+
+        widthsValid = true;
+
+        count = widthSource != null ? widthSource.getCount() : 0;
+        uniform = true;
+
+        if (count == 0 || !widthSource.hasVariableWidths()) {
+            // Every page is one column wide
+            return;
+        }
+
+        // Check for variable width pages
+        int position = 0;
+
+        while (position < count && widthSource.getPageWidthFraction(position) == 1f) {
+            position++;
+        }
+
+        if (position == count) {
+            return;
+        }
+
+        uniform = false;
+
+        if (widths == null || widths.length < count) {
+            widths = new int[count];
+            tree = new long[count + 1];
+        }
+
+        // Build page widths
+        for (int i = 0; i < count; i++) {
+            widths[i] = variableWidthOf(i);
+            tree[i + 1] = widths[i] + margin;
+        }
+
+        // Build tree in place
+        for (int i = 1; i <= count; i++) {
+            final int parent = i + (i & -i);
+
+            if (parent <= count) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    private int moduloPositionAt(long scrollX) {
+        final int groupWidth = clientWidth + columns * margin;
+
+        if (groupWidth <= 0) {
+            return 0;
+        }
+
+        final long group = floorDiv(scrollX, groupWidth);
+        final int remaining = (int) (scrollX - group * groupWidth);
+
+        // Padded pages are at the start of each group
+        final int paddedStride = pageWidth + 1 + margin;
+        final int paddedWidth = remainingWidth * paddedStride;
+
+        int column;
+
+        if (remaining < paddedWidth) {
+            column = remaining / paddedStride;
+        } else {
+            final int stride = pageWidth + margin;
+            column = remainingWidth + (stride > 0 ? (remaining - paddedWidth) / stride : 0);
+        }
+
+        return saturate(group * columns + Math.min(column, columns - 1));
+    }
+
+    private static long floorDiv(long value, long divisor) {
+        final long quotient = value / divisor;
+
+        return (value % divisor != 0 && ((value ^ divisor) < 0)) ? quotient - 1 : quotient;
+    }
+
+    private static int floorMod(int value, int divisor) {
+        return (int) (value - floorDiv(value, divisor) * divisor);
+    }
+
+    private static int saturate(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(value, Integer.MAX_VALUE));
+    }
+
+    private int variableWidthOf(int position) {
+        return Math.max(1, Math.round(widthSource.getPageWidthFraction(position) * pageWidth));
+    }
+
+    private long prefixOf(int position) {
+        long sum = 0;
+
+        for (int i = position; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+
+        return sum;
+    }
+
+    private long variableOffsetOf(int position) {
+        final int stride = pageWidth + margin;
+
+        if (position <= 0) {
+            return (long) position * stride;
+        }
+
+        if (position > count) {
+            return prefixOf(count) + (long) (position - count) * stride;
+        }
+
+        return prefixOf(position);
+    }
+
+    private int variablePositionAt(long scrollX) {
+        final int stride = pageWidth + margin;
+
+        if (scrollX < 0) {
+            return stride > 0 ? saturate(floorDiv(scrollX, stride)) : 0;
+        }
+
+        final long total = prefixOf(count);
+
+        if (scrollX >= total) {
+            return saturate(count + (stride > 0 ? (scrollX - total) / stride : 0));
+        }
+
+        // Descend the tree to find the last position starting at or before `scrollX`
+        int position = 0;
+        long remaining = scrollX;
+
+        for (int step = Integer.highestOneBit(count); step > 0; step >>= 1) {
+            final int next = position + step;
+
+            if (next <= count && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+
+        return position;
+    }
+
+    private int runOf(int position) {
+        int run = RUN_COUNT - 1;
+
+        while (run > 0 && position < runPositions[run]) {
+            run--;
+        }
+
+        return run;
+    }
+
+    private void updateRuns() {
+        int headCount = 0;
+        int tailCount = 0;
+
+        if (pad > 0) {
+            final int count = remainingWidth / pad;
+
+            headCount = (int) Math.floor(((float) count) / 2);
+            tailCount = count - headCount;
+        }
+
+        // Run start positions
+        runPositions[0] = 0;
+        runPositions[1] = anchorPosition;
+        runPositions[2] = anchorPosition + headCount;
+        runPositions[3] = anchorPosition + columns - tailCount;
+        runPositions[4] = anchorPosition + columns;
+
+        // Run page widths
+        runWidths[0] = pageWidth;
+        runWidths[1] = pageWidth + pad;
+        runWidths[2] = pageWidth;
+        runWidths[3] = pageWidth + pad;
+        runWidths[4] = pageWidth;
+
+        // Run start offsets
+        runOffsets[0] = 0;
+
+        for (int run = 1; run < RUN_COUNT; run++) {
+            runOffsets[run] = runOffsets[run - 1] +
+                (long) (runPositions[run] - runPositions[run - 1]) * (runWidths[run - 1] + margin);
+        }
+    }
+
+    //
+    // Classes
+    //
+
+    /**
+     * Provides the width of each page, as a fraction of the column width.
+     */
+    public interface WidthSource {
+        int getCount();
+
+        /**
+         * @return true if pages may be wider or narrower than one column, if false
+         *         {@link #getPageWidthFraction(int)} isn't called
+         */
+        boolean hasVariableWidths();
+
+        float getPageWidthFraction(int position);
+    }
+}
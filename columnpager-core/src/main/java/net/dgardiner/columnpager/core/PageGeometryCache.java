@@ -0,0 +1,151 @@
+package net.dgardiner.columnpager.core;
+
+/**
+ * Small LRU cache of {@link PageGeometry}s keyed by client width and column count.
+ *
+ * <p>Switching back to a recently used column count (or width) returns the geometry computed
+ * for it, including any variable page widths, instead of rebuilding it. Width sources,
+ * remainder modes and width invalidations are applied to every cached geometry.</p>
+ */
+public class PageGeometryCache {
+    private static final int DEFAULT_CAPACITY = 4;
+
+    // Most recently used first
+    private final PageGeometry[] geometries;
+    private int size;
+
+    private PageGeometry.WidthSource widthSource;
+    private int remainderMode = PageGeometry.REMAINDER_ANCHORED;
+
+    public PageGeometryCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PageGeometryCache(int capacity) {
+        geometries = new PageGeometry[Math.max(1, capacity)];
+    }
+
+    //
+    // Properties
+    //
+
+    /**
+     * @return Number of cached geometries
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getRemainderMode() {
+        return remainderMode;
+    }
+
+    /**
+     * @see PageGeometry#setRemainderMode(int)
+     * @return true if the mode changed
+     */
+    public boolean setRemainderMode(int mode) {
+        boolean changed = false;
+
+        for (int i = 0; i < size; i++) {
+            changed |= geometries[i].setRemainderMode(mode);
+        }
+
+        if (remainderMode != mode) {
+            remainderMode = mode;
+            changed = true;
+        }
+
+        return changed;
+    }
+
+    /**
+     * @see PageGeometry#setWidthSource(PageGeometry.WidthSource)
+     */
+    public void setWidthSource(PageGeometry.WidthSource source) {
+        widthSource = source;
+
+        for (int i = 0; i < size; i++) {
+            geometries[i].setWidthSource(source);
+        }
+    }
+
+    //
+    // Public methods
+    //
+
+    /**
+     * Retrieve the geometry for `clientWidth` and `columns`, creating it (or replacing the least
+     * recently used geometry) if it isn't cached.
+     *
+     * @param clientWidth Width available to pages (excluding padding)
+     * @param columns Number of columns displayed
+     * @param margin Margin between pages
+     * @return Geometry, updated to `margin`
+     */
+    public PageGeometry get(int clientWidth, int columns, int margin) {
+        columns = Math.max(1, columns);
+
+        int index = 0;
+
+        while (index < size &&
+            (geometries[index].getClientWidth() != clientWidth || geometries[index].getColumns() != columns)) {
+            index++;
+        }
+
+        PageGeometry geometry;
+
+        if (index < size) {
+            geometry = geometries[index];
+        } else if (size < geometries.length) {
+            geometry = create();
+            index = size++;
+        } else {
+            // Reuse the least recently used geometry (updating it discards its widths)
+            geometry = geometries[size - 1];
+            index = size - 1;
+        }
+
+        // Move to front
+        System.arraycopy(geometries, 0, geometries, 1, index);
+        geometries[0] = geometry;
+
+        geometry.update(clientWidth, columns, margin);
+        return geometry;
+    }
+
+    /**
+     * Discard the cached page widths of every geometry.
+     *
+     * @see PageGeometry#invalidateWidths()
+     */
+    public void invalidateWidths() {
+        for (int i = 0; i < size; i++) {
+            geometries[i].invalidateWidths();
+        }
+    }
+
+    /**
+     * Refresh the widths of `itemCount` pages starting at `start` in every geometry.
+     *
+     * @see PageGeometry#invalidateWidths(int, int)
+     */
+    public void invalidateWidths(int start, int itemCount) {
+        for (int i = 0; i < size; i++) {
+            geometries[i].invalidateWidths(start, itemCount);
+        }
+    }
+
+    //
+    // Private methods
+    //
+
+    private PageGeometry create() {
+        final PageGeometry geometry = new PageGeometry();
+
+        geometry.setWidthSource(widthSource);
+        geometry.setRemainderMode(remainderMode);
+
+        return geometry;
+    }
+}
@@ -0,0 +1,82 @@
+package net.dgardiner.columnpager.core;
+
+/**
+ * View over a single row of a {@link PagerItemTable}.
+ */
+public class PagerItem {
+    private final PagerItemTable table;
+    private final int row;
+
+    PagerItem(PagerItemTable table, int row) {
+        this.table = table;
+        this.row = row;
+    }
+
+    //
+    // Properties
+    //
+
+    public PagerItemTable getTable() {
+        return table;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getPosition() {
+        return table.positions[row];
+    }
+
+    public void setPosition(int value) {
+        table.positions[row] = value;
+    }
+
+    public int getIndex() {
+        return table.indexes[row];
+    }
+
+    public void setIndex(int value) {
+        table.indexes[row] = value;
+    }
+
+    public Object getObject() {
+        return table.objects[row];
+    }
+
+    public void setObject(Object value) {
+        table.objects[row] = value;
+    }
+
+    public int getWidth() {
+        return table.widths[row];
+    }
+
+    public void setWidth(int value) {
+        table.widths[row] = value;
+    }
+
+    public boolean isScrolling() {
+        return table.scrolling.get(row);
+    }
+
+    public void setScrolling(boolean value) {
+        table.scrolling.set(row, value);
+    }
+
+    //
+    // Public methods
+    //
+
+    /**
+     * Clear the item, so it can be reused for another position.
+     */
+    public void reset() {
+        table.clear(row);
+    }
+
+    @Override
+    public String toString() {
+        return "<PagerItem position: " + getPosition() + ", index: " + getIndex() + ", object: " + getObject() + ", width: " + getWidth() + ">";
+    }
+}
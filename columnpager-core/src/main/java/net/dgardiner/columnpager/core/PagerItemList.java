@@ -0,0 +1,245 @@
+package net.dgardiner.columnpager.core;
+
+/**
+ * List of {@link PagerItem}s keyed by adapter position.
+ *
+ * <p>Items are stored in slots indexed by their position modulo the capacity, so a contiguous
+ * window of positions occupies consecutive slots and looking up the item for a position is a
+ * constant-time slot calculation. Items far from the window (e.g. pages still scrolling after
+ * a long jump) are probed linearly from their slot. Items are also kept in position order for
+ * iteration, both structures are sized by the number of items, not the distance between
+ * them.</p>
+ */
+public class PagerItemList {
+    private static final int MIN_CAPACITY = 8;
+
+    // Items indexed by position (modulo capacity), at most half full
+    private PagerItem[] slots = new PagerItem[MIN_CAPACITY];
+
+    // Items in position order
+    private PagerItem[] items = new PagerItem[MIN_CAPACITY / 2];
+    private int size;
+
+    //
+    // Properties
+    //
+
+    /**
+     * @return Number of items in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Position of the first item, or 0 if the list is empty
+     */
+    public int getFirstPosition() {
+        return size > 0 ? items[0].getPosition() : 0;
+    }
+
+    /**
+     * @return Position of the last item, or -1 if the list is empty
+     */
+    public int getLastPosition() {
+        return size > 0 ? items[size - 1].getPosition() : -1;
+    }
+
+    public PagerItem first() {
+        return size > 0 ? items[0] : null;
+    }
+
+    public PagerItem last() {
+        return size > 0 ? items[size - 1] : null;
+    }
+
+    /**
+     * @return Number of slots allocated
+     */
+    int capacity() {
+        return slots.length;
+    }
+
+    //
+    // Public methods
+    //
+
+    /**
+     * Retrieve the item at `position`.
+     *
+     * @param position Adapter position
+     * @return Item, or null if there is no item at `position`
+     */
+    public PagerItem get(int position) {
+        final int mask = slots.length - 1;
+
+        for (int slot = position & mask; slots[slot] != null; slot = (slot + 1) & mask) {
+            if (slots[slot].getPosition() == position) {
+                return slots[slot];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Retrieve the item at `index`, items are ordered by position.
+     *
+     * @param index Index of the item, from 0 to {@link #size()} (exclusive)
+     * @return Item
+     */
+    public PagerItem itemAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Invalid index " + index + ", size is " + size);
+        }
+
+        return items[index];
+    }
+
+    /**
+     * Insert `item` at its current position.
+     *
+     * @param item Item to insert
+     * @throws IllegalStateException if an item already exists at the position
+     */
+    public void put(PagerItem item) {
+        final int position = item.getPosition();
+
+        if (get(position) != null) {
+            throw new IllegalStateException("An item already exists at position " + position);
+        }
+
+        if ((size + 1) * 2 > slots.length) {
+            resize(slots.length << 1);
+        }
+
+        insertSlot(item);
+
+        // Insert in position order
+        if (size == items.length) {
+            final PagerItem[] resized = new PagerItem[items.length << 1];
+            System.arraycopy(items, 0, resized, 0, size);
+            items = resized;
+        }
+
+        final int index = indexOf(position);
+
+        System.arraycopy(items, index, items, index + 1, size - index);
+        items[index] = item;
+        size++;
+    }
+
+    /**
+     * Remove the item at `position`.
+     *
+     * @param position Adapter position
+     * @return Removed item, or null if there was no item at `position`
+     */
+    public PagerItem remove(int position) {
+        final int mask = slots.length - 1;
+        int slot = position & mask;
+
+        while (slots[slot] != null && slots[slot].getPosition() != position) {
+            slot = (slot + 1) & mask;
+        }
+
+        final PagerItem item = slots[slot];
+
+        if (item == null) {
+            return null;
+        }
+
+        // Close the gap, moving back any following items that probed past the slot
+        slots[slot] = null;
+
+        for (int next = (slot + 1) & mask; slots[next] != null; next = (next + 1) & mask) {
+            final int home = slots[next].getPosition() & mask;
+
+            if (((next - home) & mask) >= ((next - slot) & mask)) {
+                slots[slot] = slots[next];
+                slots[next] = null;
+                slot = next;
+            }
+        }
+
+        final int index = indexOf(position);
+
+        System.arraycopy(items, index + 1, items, index, size - index - 1);
+        items[--size] = null;
+
+        // Release space left by a transient burst of items
+        if (slots.length > MIN_CAPACITY && size * 8 < slots.length) {
+            resize(slots.length >> 1);
+        }
+
+        return item;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            items[i] = null;
+        }
+
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = null;
+        }
+
+        size = 0;
+    }
+
+    //
+    // Private methods
+    //
+
+    /**
+     * @return Index of the item at `position`, or the index it would be inserted at
+     */
+    private int indexOf(int position) {
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int midPosition = items[mid].getPosition();
+
+            if (midPosition < position) {
+                low = mid + 1;
+            } else if (midPosition > position) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return low;
+    }
+
+    private void insertSlot(PagerItem item) {
+        final int mask = slots.length - 1;
+        int slot = item.getPosition() & mask;
+
+        while (slots[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+
+        slots[slot] = item;
+    }
+
+    private void resize(int capacity) {
+        slots = new PagerItem[capacity];
+
+        for (int i = 0; i < size; i++) {
+            insertSlot(items[i]);
+        }
+
+        if (items.length > MIN_CAPACITY && size * 4 < items.length) {
+            final PagerItem[] resized = new PagerItem[items.length >> 1];
+            System.arraycopy(items, 0, resized, 0, size);
+            items = resized;
+        }
+    }
+}
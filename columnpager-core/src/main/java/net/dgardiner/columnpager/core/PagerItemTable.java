@@ -0,0 +1,132 @@
+package net.dgardiner.columnpager.core;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Primitive-backed storage for {@link PagerItem}s.
+ *
+ * <p>Item attributes are stored in parallel arrays (one row per item), with the scrolling
+ * flags in a bitset and the adapter objects in a separate array. {@link PagerItem}s are
+ * lightweight views over a row, each row keeps its view so released rows (and their views)
+ * are reused without allocation.</p>
+ */
+public class PagerItemTable {
+    private static final int MIN_CAPACITY = 8;
+
+    int[] positions = new int[MIN_CAPACITY];
+    int[] indexes = new int[MIN_CAPACITY];
+    int[] widths = new int[MIN_CAPACITY];
+    Object[] objects = new Object[MIN_CAPACITY];
+
+    final BitSet scrolling = new BitSet();
+
+    private final BitSet used = new BitSet();
+    private PagerItem[] items = new PagerItem[MIN_CAPACITY];
+
+    private int size;
+
+    //
+    // Properties
+    //
+
+    /**
+     * @return Number of rows in use
+     */
+    public int size() {
+        return size;
+    }
+
+    //
+    // Public methods
+    //
+
+    /**
+     * Acquire an empty row.
+     *
+     * @return Item for the row
+     */
+    public PagerItem acquire() {
+        final int row = used.nextClearBit(0);
+
+        if (row >= positions.length) {
+            grow(row + 1);
+        }
+
+        used.set(row);
+        size++;
+
+        if (items[row] == null) {
+            items[row] = new PagerItem(this, row);
+        }
+
+        return items[row];
+    }
+
+    /**
+     * Clear the row of `item` and return it to the table.
+     *
+     * @param item Item to release
+     * @throws IllegalStateException if the item isn't in use
+     */
+    public void release(PagerItem item) {
+        final int row = item.getRow();
+
+        if (item.getTable() != this || !used.get(row)) {
+            throw new IllegalStateException("Item isn't in use: " + item);
+        }
+
+        clear(row);
+
+        used.clear(row);
+        size--;
+    }
+
+    /**
+     * Update the width of each item in use from `geometry`.
+     *
+     * @param geometry Page geometry
+     * @return true if any widths changed
+     */
+    public boolean updateWidths(PageGeometry geometry) {
+        boolean changed = false;
+
+        for (int row = used.nextSetBit(0); row >= 0; row = used.nextSetBit(row + 1)) {
+            final int width = geometry.widthOf(positions[row]);
+
+            if (widths[row] != width) {
+                widths[row] = width;
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    //
+    // Private methods
+    //
+
+    void clear(int row) {
+        positions[row] = 0;
+        indexes[row] = 0;
+        widths[row] = 0;
+        objects[row] = null;
+
+        scrolling.clear(row);
+    }
+
+    private void grow(int capacity) {
+        int length = positions.length;
+
+        while (length < capacity) {
+            length <<= 1;
+        }
+
+        positions = Arrays.copyOf(positions, length);
+        indexes = Arrays.copyOf(indexes, length);
+        widths = Arrays.copyOf(widths, length);
+        objects = Arrays.copyOf(objects, length);
+        items = Arrays.copyOf(items, length);
+    }
+}
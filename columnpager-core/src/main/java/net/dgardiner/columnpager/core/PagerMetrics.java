@@ -0,0 +1,218 @@
+package net.dgardiner.columnpager.core;
+
+/**
+ * Rolling pager counters, collected over an interval (one second by default).
+ *
+ * <p>Counters are primitive fields updated in place, {@link #roll(long, PagerMetrics)} copies
+ * them into a snapshot once the interval has elapsed, so recording and reporting never
+ * allocate.</p>
+ */
+public class PagerMetrics {
+    public static final long DEFAULT_INTERVAL_NANOS = 1000000000L;
+
+    private long intervalNanos = DEFAULT_INTERVAL_NANOS;
+    private long startNanos;
+    private long elapsedNanos;
+
+    private int itemsInstantiated;
+    private long instantiateNanos;
+
+    private int itemsDestroyed;
+    private long destroyNanos;
+
+    private int populates;
+    private long populateNanos;
+
+    private int measures;
+    private long measureNanos;
+
+    private int layouts;
+    private long layoutNanos;
+
+    private int childrenMeasured;
+    private int offsetLayoutRequests;
+
+    //
+    // Properties
+    //
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    public void setIntervalNanos(long value) {
+        intervalNanos = value;
+    }
+
+    /**
+     * @return Length of the interval these counters were collected over
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public int getItemsInstantiated() {
+        return itemsInstantiated;
+    }
+
+    public long getInstantiateNanos() {
+        return instantiateNanos;
+    }
+
+    public int getItemsDestroyed() {
+        return itemsDestroyed;
+    }
+
+    public long getDestroyNanos() {
+        return destroyNanos;
+    }
+
+    public int getPopulates() {
+        return populates;
+    }
+
+    public long getPopulateNanos() {
+        return populateNanos;
+    }
+
+    public int getMeasures() {
+        return measures;
+    }
+
+    public long getMeasureNanos() {
+        return measureNanos;
+    }
+
+    public int getLayouts() {
+        return layouts;
+    }
+
+    public long getLayoutNanos() {
+        return layoutNanos;
+    }
+
+    public int getChildrenMeasured() {
+        return childrenMeasured;
+    }
+
+    /**
+     * @return Number of layouts requested by page offset calculations
+     */
+    public int getOffsetLayoutRequests() {
+        return offsetLayoutRequests;
+    }
+
+    //
+    // Public methods
+    //
+
+    public void recordInstantiate(long nanos) {
+        itemsInstantiated++;
+        instantiateNanos += nanos;
+    }
+
+    public void recordDestroy(long nanos) {
+        itemsDestroyed++;
+        destroyNanos += nanos;
+    }
+
+    public void recordPopulate(long nanos) {
+        populates++;
+        populateNanos += nanos;
+    }
+
+    public void recordMeasure(long nanos) {
+        measures++;
+        measureNanos += nanos;
+    }
+
+    public void recordLayout(long nanos) {
+        layouts++;
+        layoutNanos += nanos;
+    }
+
+    public void recordChildMeasured() {
+        childrenMeasured++;
+    }
+
+    public void recordOffsetLayoutRequest() {
+        offsetLayoutRequests++;
+    }
+
+    /**
+     * Copy the counters into `snapshot` and start a new interval, if the current interval
+     * has elapsed.
+     *
+     * @param nowNanos Current time (in {@link System#nanoTime()})
+     * @param snapshot Metrics to copy the counters into
+     * @return true if the interval had elapsed and `snapshot` was updated
+     */
+    public boolean roll(long nowNanos, PagerMetrics snapshot) {
+        if (nowNanos - startNanos < intervalNanos) {
+            return false;
+        }
+
+        snapshot.copyFrom(this);
+        snapshot.elapsedNanos = nowNanos - startNanos;
+
+        reset(nowNanos);
+        return true;
+    }
+
+    /**
+     * Clear the counters and start a new interval.
+     *
+     * @param nowNanos Current time (in {@link System#nanoTime()})
+     */
+    public void reset(long nowNanos) {
+        startNanos = nowNanos;
+        elapsedNanos = 0;
+
+        itemsInstantiated = 0;
+        instantiateNanos = 0;
+        itemsDestroyed = 0;
+        destroyNanos = 0;
+        populates = 0;
+        populateNanos = 0;
+        measures = 0;
+        measureNanos = 0;
+        layouts = 0;
+        layoutNanos = 0;
+        childrenMeasured = 0;
+        offsetLayoutRequests = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "<PagerMetrics elapsedNanos: " + elapsedNanos +
+            ", itemsInstantiated: " + itemsInstantiated + " (" + instantiateNanos + "ns)" +
+            ", itemsDestroyed: " + itemsDestroyed + " (" + destroyNanos + "ns)" +
+            ", populates: " + populates + " (" + populateNanos + "ns)" +
+            ", measures: " + measures + " (" + measureNanos + "ns)" +
+            ", layouts: " + layouts + " (" + layoutNanos + "ns)" +
+            ", childrenMeasured: " + childrenMeasured +
+            ", offsetLayoutRequests: " + offsetLayoutRequests + ">";
+    }
+
+    //
+    // Private methods
+    //
+
+    private void copyFrom(PagerMetrics other) {
+        intervalNanos = other.intervalNanos;
+        startNanos = other.startNanos;
+
+        itemsInstantiated = other.itemsInstantiated;
+        instantiateNanos = other.instantiateNanos;
+        itemsDestroyed = other.itemsDestroyed;
+        destroyNanos = other.destroyNanos;
+        populates = other.populates;
+        populateNanos = other.populateNanos;
+        measures = other.measures;
+        measureNanos = other.measureNanos;
+        layouts = other.layouts;
+        layoutNanos = other.layoutNanos;
+        childrenMeasured = other.childrenMeasured;
+        offsetLayoutRequests = other.offsetLayoutRequests;
+    }
+}
@@ -0,0 +1,144 @@
+package net.dgardiner.columnpager.core;
+
+/**
+ * Range of positions the pager keeps populated.
+ *
+ * <p>The window covers the columns visible from the current item plus the offscreen page
+ * limit on either side. Pages prefetched in the scroll direction extend the range of items
+ * that are kept, without being created by {@link #populate(PagerItemList, Callback)}.</p>
+ */
+public class PagerWindow {
+    private int start;
+    private int end = -1;
+
+    private int keepStart;
+    private int keepEnd = -1;
+
+    private int createdCount;
+    private int destroyedCount;
+
+    //
+    // Properties
+    //
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * @return Number of positions in the window
+     */
+    public int size() {
+        return Math.max(0, end - start + 1);
+    }
+
+    public int getKeepStart() {
+        return keepStart;
+    }
+
+    public int getKeepEnd() {
+        return keepEnd;
+    }
+
+    /**
+     * @return Number of items created by the last populate
+     */
+    public int getCreatedCount() {
+        return createdCount;
+    }
+
+    /**
+     * @return Number of items destroyed by the last populate
+     */
+    public int getDestroyedCount() {
+        return destroyedCount;
+    }
+
+    //
+    // Public methods
+    //
+
+    public static int startOf(int currentItem, int offscreenPageLimit) {
+        return Math.max(0, currentItem - offscreenPageLimit);
+    }
+
+    public static int endOf(PageGeometry geometry, int currentItem, int count, int offscreenPageLimit) {
+        return Math.min(count - 1, geometry.getLastVisiblePosition(currentItem) + offscreenPageLimit);
+    }
+
+    /**
+     * Update the window for `currentItem`.
+     *
+     * @param geometry Page geometry
+     * @param currentItem Current item of the pager
+     * @param count Number of pages
+     * @param offscreenPageLimit Number of pages to keep on either side of the visible columns
+     */
+    public void update(PageGeometry geometry, int currentItem, int count, int offscreenPageLimit) {
+        start = startOf(currentItem, offscreenPageLimit);
+        end = endOf(geometry, currentItem, count, offscreenPageLimit);
+
+        keepStart = start;
+        keepEnd = end;
+    }
+
+    /**
+     * Keep `extent` prefetched pages beyond the window in `direction`.
+     *
+     * @param direction Prefetch direction (-1, 0 or 1)
+     * @param extent Number of prefetched pages
+     */
+    public void keep(int direction, int extent) {
+        keepStart = direction < 0 ? start - extent : start;
+        keepEnd = direction > 0 ? end + extent : end;
+    }
+
+    /**
+     * Destroy items that have left the window (items that are part of an active scroll are kept
+     * until the scroll has completed), and create items for any missing positions in the window.
+     *
+     * @param items Current items
+     * @param callback Callback that creates and destroys items
+     */
+    public void populate(PagerItemList items, Callback callback) {
+        createdCount = 0;
+        destroyedCount = 0;
+
+        for (int i = 0; i < items.size(); i++) {
+            final PagerItem item = items.itemAt(i);
+            final int pos = item.getPosition();
+
+            if (item.isScrolling() || (pos >= keepStart && pos <= keepEnd)) {
+                continue;
+            }
+
+            callback.destroyItem(pos);
+            destroyedCount++;
+
+            // Item has been removed
+            i--;
+        }
+
+        for (int pos = start; pos <= end; pos++) {
+            if (items.get(pos) == null) {
+                callback.createItem(pos, pos - start);
+                createdCount++;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "<PagerWindow start: " + start + ", end: " + end + ", keepStart: " + keepStart + ", keepEnd: " + keepEnd + ">";
+    }
+
+    public interface Callback {
+        void createItem(int position, int index);
+
+        void destroyItem(int position);
+    }
+}
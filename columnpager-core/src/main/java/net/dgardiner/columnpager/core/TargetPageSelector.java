@@ -0,0 +1,179 @@
+package net.dgardiner.columnpager.core;
+
+/**
+ * Selects the page to settle on when a drag is released.
+ *
+ * <p>Releasing a drag with enough distance and velocity flings the content. The fling
+ * distance follows the same spline decay as the platform scrollers, and the target is the
+ * page boundary nearest to where the fling would come to rest, so fast flings cross several
+ * pages at once. Otherwise the pager settles on the nearest page, biased towards the page the
+ * drag started from.</p>
+ */
+public class TargetPageSelector {
+    // Spline decay constants (from android.widget.OverScroller)
+    private static final float DECELERATION_RATE = (float) (Math.log(0.78) / Math.log(0.9));
+    private static final float INFLEXION = 0.35f;
+
+    // SensorManager.GRAVITY_EARTH
+    private static final float GRAVITY_EARTH = 9.80665f;
+
+    // ViewConfiguration.getScrollFriction()
+    private static final float DEFAULT_FRICTION = 0.015f;
+
+    private int flingDistance;
+    private int minimumVelocity;
+
+    private float friction = DEFAULT_FRICTION;
+    private float physicalCoeff = physicalCoeff(1f);
+
+    //
+    // Properties
+    //
+
+    public int getFlingDistance() {
+        return flingDistance;
+    }
+
+    /**
+     * @param value Minimum drag distance (in pixels) required to fling
+     */
+    public void setFlingDistance(int value) {
+        flingDistance = value;
+    }
+
+    public int getMinimumVelocity() {
+        return minimumVelocity;
+    }
+
+    /**
+     * @param value Minimum velocity (in pixels per second) required to fling
+     */
+    public void setMinimumVelocity(int value) {
+        minimumVelocity = value;
+    }
+
+    /**
+     * @param density Display density, used to convert fling deceleration into pixels
+     */
+    public void setDensity(float density) {
+        physicalCoeff = physicalCoeff(density);
+    }
+
+    public float getFriction() {
+        return friction;
+    }
+
+    /**
+     * @param value Fling friction (see {@code ViewConfiguration.getScrollFriction()})
+     */
+    public void setFriction(float value) {
+        friction = value;
+    }
+
+    //
+    // Public methods
+    //
+
+    /**
+     * Select the target page of a released drag.
+     *
+     * @param geometry Page geometry
+     * @param scrollX Current scroll position (in pixels)
+     * @param currentItem Current item of the pager
+     * @param velocity Horizontal velocity of the drag (in pixels per second)
+     * @param deltaX Horizontal distance of the drag (in pixels)
+     * @param count Number of pages
+     * @return Target position
+     */
+    public int select(PageGeometry geometry, int scrollX, int currentItem, int velocity, int deltaX, int count) {
+        if (count <= 0) {
+            return 0;
+        }
+
+        final int currentPage = clamp(geometry.positionAt(scrollX), 0, count - 1);
+        int targetPage;
+
+        if (Math.abs(deltaX) > flingDistance && Math.abs(velocity) > minimumVelocity) {
+            // Find the page nearest to where the fling comes to rest
+            final int distance = (int) getSplineFlingDistance(velocity);
+            final int restX = clamp(
+                velocity > 0 ? scrollX - distance : scrollX + distance,
+                0, Math.max(0, geometry.getEndScrollOffset(count - 1))
+            );
+
+            targetPage = nearestPosition(geometry, restX);
+
+            // Always move at least one page in the direction of the fling
+            if (velocity > 0) {
+                targetPage = Math.min(targetPage, currentPage);
+            } else {
+                targetPage = Math.max(targetPage, currentPage + 1);
+            }
+        } else {
+            final float pageOffset = ((float) (scrollX - geometry.offsetOf(currentPage))) /
+                (geometry.widthOf(currentPage) + geometry.getMargin());
+
+            final float truncator = currentPage >= currentItem ? 0.4f : 0.6f;
+            targetPage = (int) (currentPage + pageOffset + truncator);
+        }
+
+        return clamp(targetPage, 0, count - 1);
+    }
+
+    /**
+     * @param velocity Initial velocity (in pixels per second)
+     * @return Distance (in pixels) travelled by a fling before it comes to rest
+     */
+    public double getSplineFlingDistance(int velocity) {
+        final double l = getSplineDeceleration(velocity);
+        final double decelMinusOne = DECELERATION_RATE - 1.0;
+
+        return friction * physicalCoeff * Math.exp(DECELERATION_RATE / decelMinusOne * l);
+    }
+
+    /**
+     * @param velocity Initial velocity (in pixels per second)
+     * @return Duration (in milliseconds) of a fling before it comes to rest
+     */
+    public int getSplineFlingDuration(int velocity) {
+        final double l = getSplineDeceleration(velocity);
+        final double decelMinusOne = DECELERATION_RATE - 1.0;
+
+        return (int) (1000.0 * Math.exp(l / decelMinusOne));
+    }
+
+    //
+    // Private methods
+    //
+
+    private double getSplineDeceleration(int velocity) {
+        return Math.log(INFLEXION * Math.abs(velocity) / (friction * physicalCoeff));
+    }
+
+    /**
+     * @return Position of the page boundary nearest to `scrollX`
+     */
+    private static int nearestPosition(PageGeometry geometry, int scrollX) {
+        final int position = geometry.positionAt(scrollX);
+        final int span = geometry.widthOf(position) + geometry.getMargin();
+
+        if ((scrollX - geometry.offsetOf(position)) * 2 >= span) {
+            return position + 1;
+        }
+
+        return position;
+    }
+
+    private static float physicalCoeff(float density) {
+        final float ppi = density * 160.0f;
+
+        return GRAVITY_EARTH // g (m/s^2)
+            * 39.37f // inch/meter
+            * ppi
+            * 0.84f; // look and feel tuning
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, max));
+    }
+}
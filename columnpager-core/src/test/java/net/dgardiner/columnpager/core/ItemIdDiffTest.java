@@ -0,0 +1,281 @@
+package net.dgardiner.columnpager.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ItemIdDiffTest {
+    @Test
+    public void emptyToNonEmptyIsSingleInsert() {
+        final ItemIdDiff diff = check(ids(), ids(1, 2, 3));
+
+        assertEquals(1, diff.getOperationCount());
+        assertOperation(diff, 0, ItemIdDiff.OPERATION_INSERT, 0, 3);
+    }
+
+    @Test
+    public void nonEmptyToEmptyIsSingleRemove() {
+        final ItemIdDiff diff = check(ids(1, 2, 3), ids());
+
+        assertEquals(1, diff.getOperationCount());
+        assertOperation(diff, 0, ItemIdDiff.OPERATION_REMOVE, 0, 3);
+    }
+
+    @Test
+    public void identicalListsHaveNoOperations() {
+        assertEquals(0, check(ids(1, 2, 3), ids(1, 2, 3)).getOperationCount());
+        assertEquals(0, check(ids(), ids()).getOperationCount());
+    }
+
+    @Test
+    public void pureInsert() {
+        final ItemIdDiff diff = check(ids(1, 2, 5, 6), ids(1, 2, 3, 4, 5, 6, 7));
+
+        assertEquals(2, diff.getOperationCount());
+        assertOperation(diff, 0, ItemIdDiff.OPERATION_INSERT, 2, 2);
+        assertOperation(diff, 1, ItemIdDiff.OPERATION_INSERT, 6, 1);
+        assertEquals(0, countMoves(diff));
+    }
+
+    @Test
+    public void pureRemove() {
+        final ItemIdDiff diff = check(ids(1, 2, 3, 4, 5, 6, 7), ids(1, 2, 5, 6));
+
+        assertEquals(2, diff.getOperationCount());
+        assertOperation(diff, 0, ItemIdDiff.OPERATION_REMOVE, 6, 1);
+        assertOperation(diff, 1, ItemIdDiff.OPERATION_REMOVE, 2, 2);
+        assertEquals(0, countMoves(diff));
+    }
+
+    @Test
+    public void rotationMovesOneItem() {
+        final ItemIdDiff diff = check(ids(1, 2, 3, 4, 5, 6), ids(2, 3, 4, 5, 6, 1));
+
+        assertEquals(1, diff.getOperationCount());
+        assertOperation(diff, 0, ItemIdDiff.OPERATION_MOVE, 0, 5);
+
+        assertEquals(1, countMoves(check(ids(1, 2, 3, 4, 5, 6), ids(6, 1, 2, 3, 4, 5))));
+    }
+
+    @Test
+    public void reversalKeepsOneItem() {
+        final long[] oldIds = new long[50];
+        final long[] newIds = new long[50];
+
+        for (int i = 0; i < 50; i++) {
+            oldIds[i] = i;
+            newIds[49 - i] = i;
+        }
+
+        assertEquals(49, countMoves(check(oldIds, newIds)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateIdsAreRejected() {
+        ItemIdDiff.calculate(ids(1, 2, 1), ids(1, 2));
+    }
+
+    @Test
+    public void randomListsAreReproduced() {
+        final Random random = new Random(42);
+
+        for (int run = 0; run < 2000; run++) {
+            final long[] oldIds = randomIds(random, random.nextInt(40));
+            final long[] newIds;
+
+            if (random.nextBoolean()) {
+                // Permutation of the current items (moves only)
+                newIds = shuffle(random, oldIds);
+            } else {
+                newIds = randomIds(random, random.nextInt(40));
+            }
+
+            check(oldIds, newIds);
+        }
+    }
+
+    //
+    // Helpers
+    //
+
+    /**
+     * Calculate the diff of `oldIds` and `newIds`, and check that applying its operations to
+     * `oldIds` reproduces `newIds` with the minimum number of moves. Inserted items are
+     * placeholders, which must end up at the positions of the new items.
+     */
+    private static ItemIdDiff check(long[] oldIds, long[] newIds) {
+        final ItemIdDiff diff = ItemIdDiff.calculate(oldIds, newIds);
+
+        final ArrayList<Long> items = new ArrayList<Long>();
+
+        for (long id : oldIds) {
+            items.add(id);
+        }
+
+        for (int i = 0; i < diff.getOperationCount(); i++) {
+            final int first = diff.getOperationFirst(i);
+            final int second = diff.getOperationSecond(i);
+
+            switch (diff.getOperationType(i)) {
+                case ItemIdDiff.OPERATION_INSERT:
+                    for (int j = 0; j < second; j++) {
+                        items.add(first + j, null);
+                    }
+                    break;
+                case ItemIdDiff.OPERATION_REMOVE:
+                    items.subList(first, first + second).clear();
+                    break;
+                case ItemIdDiff.OPERATION_MOVE:
+                    items.add(second, items.remove(first));
+                    break;
+            }
+        }
+
+        final HashMap<Long, Integer> oldIndexes = indexes(oldIds);
+        final long[] result = new long[items.size()];
+
+        for (int i = 0; i < result.length; i++) {
+            if (items.get(i) != null) {
+                result[i] = items.get(i);
+            } else if (i < newIds.length && !oldIndexes.containsKey(newIds[i])) {
+                result[i] = newIds[i];
+            } else {
+                result[i] = -1;
+            }
+        }
+
+        final String message = Arrays.toString(oldIds) + " -> " + Arrays.toString(newIds);
+
+        assertArrayEquals(message, newIds, result);
+
+        // Only items whose relative order changed are moved
+        assertEquals(message, countCommon(oldIds, newIds) - longestOrderedRun(oldIds, newIds), countMoves(diff));
+
+        return diff;
+    }
+
+    private static void assertOperation(ItemIdDiff diff, int index, int type, int first, int second) {
+        assertEquals(type, diff.getOperationType(index));
+        assertEquals(first, diff.getOperationFirst(index));
+        assertEquals(second, diff.getOperationSecond(index));
+    }
+
+    private static int countMoves(ItemIdDiff diff) {
+        int moves = 0;
+
+        for (int i = 0; i < diff.getOperationCount(); i++) {
+            if (diff.getOperationType(i) == ItemIdDiff.OPERATION_MOVE) {
+                moves++;
+            }
+        }
+
+        return moves;
+    }
+
+    private static int countCommon(long[] oldIds, long[] newIds) {
+        final HashMap<Long, Integer> newIndexes = indexes(newIds);
+        int common = 0;
+
+        for (long id : oldIds) {
+            if (newIndexes.containsKey(id)) {
+                common++;
+            }
+        }
+
+        return common;
+    }
+
+    /**
+     * @return Length of the longest run of common items that keep their relative order
+     *         (longest increasing subsequence of their new positions)
+     */
+    private static int longestOrderedRun(long[] oldIds, long[] newIds) {
+        final HashMap<Long, Integer> newIndexes = indexes(newIds);
+
+        final int[] tails = new int[oldIds.length];
+        int length = 0;
+
+        for (long id : oldIds) {
+            final Integer index = newIndexes.get(id);
+
+            if (index == null) {
+                continue;
+            }
+
+            int position = Arrays.binarySearch(tails, 0, length, index);
+
+            if (position < 0) {
+                position = -position - 1;
+            }
+
+            tails[position] = index;
+
+            if (position == length) {
+                length++;
+            }
+        }
+
+        return length;
+    }
+
+    private static HashMap<Long, Integer> indexes(long[] ids) {
+        final HashMap<Long, Integer> indexes = new HashMap<Long, Integer>();
+
+        for (int i = 0; i < ids.length; i++) {
+            indexes.put(ids[i], i);
+        }
+
+        return indexes;
+    }
+
+    private static long[] randomIds(Random random, int count) {
+        // Unique IDs drawn from a small range, so lists share most of their items
+        final ArrayList<Long> pool = new ArrayList<Long>();
+
+        for (long id = 0; id < 50; id++) {
+            pool.add(id);
+        }
+
+        Collections.shuffle(pool, random);
+
+        final long[] ids = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            ids[i] = pool.get(i);
+        }
+
+        // Keep runs of the pool order, as most updates only reorder a few items
+        Arrays.sort(ids, 0, count / 2);
+
+        return ids;
+    }
+
+    private static long[] shuffle(Random random, long[] ids) {
+        final long[] shuffled = ids.clone();
+
+        // Swap a few items, or shuffle the whole list
+        final int swaps = random.nextBoolean() ? random.nextInt(3) + 1 : ids.length;
+
+        for (int i = 0; i < swaps && ids.length > 1; i++) {
+            final int a = random.nextInt(ids.length);
+            final int b = random.nextInt(ids.length);
+
+            final long id = shuffled[a];
+            shuffled[a] = shuffled[b];
+            shuffled[b] = id;
+        }
+
+        return shuffled;
+    }
+
+    private static long[] ids(long... ids) {
+        return ids;
+    }
+}
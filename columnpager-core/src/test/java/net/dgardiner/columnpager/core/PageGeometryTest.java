@@ -0,0 +1,265 @@
+package net.dgardiner.columnpager.core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PageGeometryTest {
+    @Test
+    public void positionAtIsExactBeyondFloatPrecision() {
+        // Relative offsets past 2^24 px
+        assertPositionsExact(geometry(1000, 3, 0, 1000000), 1000000, 1000000 + 60000);
+        assertPositionsExact(geometry(1080, 1, 0, 0), 124000, 124600);
+    }
+
+    @Test
+    public void moduloPositionAtIsExactBeyondFloatPrecision() {
+        final PageGeometry geometry = geometry(1000, 3, 8, 0);
+        geometry.setRemainderMode(PageGeometry.REMAINDER_MODULO);
+
+        assertPositionsExact(geometry, 1500000, 1500600);
+    }
+
+    @Test
+    public void variablePositionAtIsExactForNegativeOffsets() {
+        final PageGeometry geometry = geometry(1080, 4, 8, 0);
+        geometry.setWidthSource(new AlternatingWidthSource(1000));
+
+        for (int position = -3000000; position < -2999000; position++) {
+            final int offset = geometry.offsetOf(position);
+
+            assertEquals(position, geometry.positionAt(offset));
+            assertEquals(position, geometry.positionAt(offset + geometry.widthOf(position) + geometry.getMargin() - 1));
+        }
+    }
+
+    @Test
+    public void offsetsSaturateNearTheLimit() {
+        final int count = 10000000;
+
+        for (int columns = 1; columns <= 4; columns++) {
+            final PageGeometry geometry = geometry(1080, columns, 0, 0);
+
+            assertEquals(Integer.MAX_VALUE, geometry.offsetOf(count - 1));
+            assertEquals(Integer.MAX_VALUE, geometry.getEndScrollOffset(count - 1));
+
+            // The last reachable page is still looked up exactly
+            final int last = geometry.positionAt(Integer.MAX_VALUE);
+            final int lastOffset = geometry.offsetOf(last);
+
+            assertTrue(lastOffset > 0);
+            assertEquals(last, geometry.positionAt(lastOffset));
+            assertEquals(last - 1, geometry.positionAt(lastOffset - 1));
+        }
+    }
+
+    @Test
+    public void variableOffsetsSaturateNearTheLimit() {
+        final int count = 10000000;
+
+        final PageGeometry geometry = geometry(1080, 3, 8, 0);
+        geometry.setWidthSource(new AlternatingWidthSource(count));
+
+        assertEquals(Integer.MAX_VALUE, geometry.offsetOf(count - 1));
+        assertEquals(Integer.MAX_VALUE, geometry.getEndScrollOffset(count - 1));
+
+        final int last = geometry.positionAt(Integer.MAX_VALUE);
+
+        assertTrue(last > 0 && last < count);
+        assertEquals(last, geometry.positionAt(geometry.offsetOf(last)));
+    }
+
+    @Test
+    public void uniformSourceIsNotScanned() {
+        final FractionWidthSource source = new FractionWidthSource(10000000, false);
+
+        final PageGeometry geometry = geometry(1080, 3, 8, 0);
+        geometry.setWidthSource(source);
+
+        geometry.invalidateWidths();
+        geometry.invalidateWidths(0, 10);
+
+        assertTrue(geometry.isUniform());
+        assertEquals(5000000 * (360 + 8), geometry.offsetOf(5000000));
+        assertEquals(0, source.calls);
+    }
+
+    @Test
+    public void changedRangeRefreshesWidths() {
+        final FractionWidthSource source = new FractionWidthSource(1000, true);
+        source.fractions[10] = 2f;
+
+        final PageGeometry geometry = geometry(1080, 3, 8, 0);
+        geometry.setWidthSource(source);
+        geometry.offsetOf(0);
+
+        source.fractions[10] = 1f;
+        source.fractions[500] = 3f;
+        source.fractions[501] = 0.5f;
+        source.calls = 0;
+
+        geometry.invalidateWidths(500, 2);
+        geometry.invalidateWidths(10, 1);
+
+        assertEquals(3, source.calls);
+        assertOffsetsEqual(fresh(source, 1080, 3, 8), geometry, 1000);
+    }
+
+    @Test
+    public void changedRangeSwitchesToVariableWidths() {
+        final FractionWidthSource source = new FractionWidthSource(1000, true);
+
+        final PageGeometry geometry = geometry(1080, 3, 8, 0);
+        geometry.setWidthSource(source);
+
+        assertTrue(geometry.isUniform());
+
+        source.fractions[42] = 2f;
+        geometry.invalidateWidths(40, 5);
+
+        assertFalse(geometry.isUniform());
+        assertOffsetsEqual(fresh(source, 1080, 3, 8), geometry, 1000);
+    }
+
+    //
+    // Helpers
+    //
+
+    @Test
+    public void lookupsAgreeAcrossConfigurations() {
+        final Random random = new Random(42);
+
+        // Configurations measured by GeometryBenchmark
+        for (int count : new int[] { 10, 1000, 100000, 10000000 }) {
+            for (int columns : new int[] { 1, 2, 3, 4, 6, 12 }) {
+                for (boolean variable : new boolean[] { false, true }) {
+                    final PageGeometry geometry = geometry(1080, columns, 8, 0);
+                    geometry.setWidthSource(new AlternatingWidthSource(count, variable));
+
+                    // Positions that can be scrolled to (offsets saturate at Integer.MAX_VALUE)
+                    final int scrollRange = Math.max(1, geometry.getEndScrollOffset(count - 1));
+                    final int scrollableCount = Math.min(count, geometry.positionAt(scrollRange) + 1);
+
+                    geometry.setAnchorPosition(scrollableCount / 2);
+
+                    final String message = "count: " + count + ", columns: " + columns + ", variable: " + variable;
+
+                    for (int i = 0; i < 200; i++) {
+                        final int position = random.nextInt(Math.max(1, scrollableCount - 1));
+                        final int offset = geometry.offsetOf(position);
+                        final int span = geometry.widthOf(position) + geometry.getMargin();
+
+                        assertEquals(message, position, geometry.positionAt(offset));
+                        assertEquals(message, position, geometry.positionAt(offset + span - 1));
+                        assertEquals(message, offset + span, geometry.offsetOf(position + 1));
+
+                        final int scrollX = random.nextInt(scrollRange);
+                        final int scrollPosition = geometry.positionAt(scrollX);
+                        final int scrollOffset = geometry.offsetOf(scrollPosition);
+
+                        assertTrue(message, scrollOffset <= scrollX);
+                        assertTrue(message, scrollX < scrollOffset + geometry.widthOf(scrollPosition) + geometry.getMargin());
+                    }
+                }
+            }
+        }
+    }
+
+    private static PageGeometry fresh(PageGeometry.WidthSource source, int clientWidth, int columns, int margin) {
+        final PageGeometry geometry = geometry(clientWidth, columns, margin, 0);
+        geometry.setWidthSource(source);
+        return geometry;
+    }
+
+    private static void assertOffsetsEqual(PageGeometry expected, PageGeometry actual, int count) {
+        for (int position = -2; position <= count + 2; position++) {
+            assertEquals(expected.widthOf(position), actual.widthOf(position));
+            assertEquals(expected.offsetOf(position), actual.offsetOf(position));
+            assertEquals(position, actual.positionAt(actual.offsetOf(position)));
+        }
+    }
+
+    private static PageGeometry geometry(int clientWidth, int columns, int margin, int anchorPosition) {
+        final PageGeometry geometry = new PageGeometry();
+
+        geometry.update(clientWidth, columns, margin);
+        geometry.setAnchorPosition(anchorPosition);
+
+        return geometry;
+    }
+
+    private static void assertPositionsExact(PageGeometry geometry, int start, int end) {
+        for (int position = start; position < end; position++) {
+            final int offset = geometry.offsetOf(position);
+            final int span = geometry.widthOf(position) + geometry.getMargin();
+
+            assertEquals(position, geometry.positionAt(offset));
+            assertEquals(position, geometry.positionAt(offset + span - 1));
+            assertEquals(offset + span, geometry.offsetOf(position + 1));
+        }
+    }
+
+    private static class FractionWidthSource implements PageGeometry.WidthSource {
+        private final float[] fractions;
+        private final boolean variable;
+
+        private int calls;
+
+        FractionWidthSource(int count, boolean variable) {
+            this.fractions = new float[variable ? count : 0];
+            this.variable = variable;
+
+            Arrays.fill(fractions, 1f);
+        }
+
+        @Override
+        public int getCount() {
+            return variable ? fractions.length : 10000000;
+        }
+
+        @Override
+        public boolean hasVariableWidths() {
+            return variable;
+        }
+
+        @Override
+        public float getPageWidthFraction(int position) {
+            calls++;
+            return variable ? fractions[position] : 1f;
+        }
+    }
+
+    private static class AlternatingWidthSource implements PageGeometry.WidthSource {
+        private final int count;
+        private final boolean variable;
+
+        AlternatingWidthSource(int count) {
+            this(count, true);
+        }
+
+        AlternatingWidthSource(int count, boolean variable) {
+            this.count = count;
+            this.variable = variable;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public boolean hasVariableWidths() {
+            return variable;
+        }
+
+        @Override
+        public float getPageWidthFraction(int position) {
+            return variable && (position % 2) != 0 ? 2f : 1f;
+        }
+    }
+}
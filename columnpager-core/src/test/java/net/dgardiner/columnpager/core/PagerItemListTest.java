@@ -0,0 +1,148 @@
+package net.dgardiner.columnpager.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PagerItemListTest {
+    private final PagerItemTable table = new PagerItemTable();
+
+    @Test
+    public void capacityStaysBoundedAcrossLongJumps() {
+        final PagerItemList items = new PagerItemList();
+
+        populate(items, 0, 5);
+
+        for (int jump = 1; jump <= 10; jump++) {
+            final int start = jump * 1000000;
+
+            // Current pages are kept (scrolling) while the new window is populated
+            populate(items, start, start + 5);
+
+            assertEquals(10, items.size());
+            assertTrue("Capacity " + items.capacity(), items.capacity() <= 32);
+
+            assertEquals(start - 1000000, items.getFirstPosition());
+            assertEquals(start + 4, items.getLastPosition());
+
+            for (int pos = start; pos < start + 5; pos++) {
+                assertEquals(pos, items.get(pos).getPosition());
+                assertEquals(pos - 1000000, items.get(pos - 1000000).getPosition());
+            }
+
+            // Scroll completes, previous pages are destroyed
+            for (int pos = start - 1000000; pos < start - 1000000 + 5; pos++) {
+                assertEquals(pos, items.remove(pos).getPosition());
+            }
+
+            assertEquals(5, items.size());
+            assertEquals(start, items.getFirstPosition());
+        }
+    }
+
+    @Test
+    public void capacityShrinksAfterBurst() {
+        final PagerItemList items = new PagerItemList();
+
+        populate(items, 0, 1000);
+        assertTrue(items.capacity() >= 2000);
+
+        for (int pos = 0; pos < 996; pos++) {
+            items.remove(pos);
+        }
+
+        assertTrue("Capacity " + items.capacity(), items.capacity() <= 32);
+
+        for (int pos = 996; pos < 1000; pos++) {
+            assertEquals(pos, items.get(pos).getPosition());
+        }
+    }
+
+    @Test
+    public void itemsAreOrderedByPosition() {
+        final PagerItemList items = new PagerItemList();
+
+        final int[] positions = {5, -3, 1000000, 4, 6, Integer.MAX_VALUE, Integer.MIN_VALUE, 13};
+
+        for (int position : positions) {
+            items.put(item(position));
+        }
+
+        assertEquals(Integer.MIN_VALUE, items.getFirstPosition());
+        assertEquals(Integer.MAX_VALUE, items.getLastPosition());
+        assertEquals(Integer.MIN_VALUE, items.first().getPosition());
+        assertEquals(Integer.MAX_VALUE, items.last().getPosition());
+
+        for (int i = 1; i < items.size(); i++) {
+            assertTrue(items.itemAt(i - 1).getPosition() < items.itemAt(i).getPosition());
+        }
+
+        for (int position : positions) {
+            assertEquals(position, items.get(position).getPosition());
+        }
+
+        assertNull(items.get(7));
+    }
+
+    @Test
+    public void collidingPositionsAreFound() {
+        final PagerItemList items = new PagerItemList();
+
+        // Positions that share slots
+        for (int i = 0; i < 3; i++) {
+            items.put(item(i * 64));
+            items.put(item(i * 64 + 1));
+        }
+
+        final PagerItem removed = items.get(64);
+        assertSame(removed, items.remove(64));
+        assertNull(items.get(64));
+
+        assertEquals(0, items.get(0).getPosition());
+        assertEquals(1, items.get(1).getPosition());
+        assertEquals(65, items.get(65).getPosition());
+        assertEquals(128, items.get(128).getPosition());
+        assertEquals(129, items.get(129).getPosition());
+        assertEquals(5, items.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void putRejectsDuplicatePositions() {
+        final PagerItemList items = new PagerItemList();
+
+        items.put(item(3));
+        items.put(item(3));
+    }
+
+    @Test
+    public void clearRemovesAllItems() {
+        final PagerItemList items = new PagerItemList();
+
+        populate(items, 10, 20);
+        items.clear();
+
+        assertTrue(items.isEmpty());
+        assertNull(items.get(10));
+        assertNull(items.first());
+        assertEquals(-1, items.getLastPosition());
+    }
+
+    //
+    // Helpers
+    //
+
+    private void populate(PagerItemList items, int start, int end) {
+        for (int pos = start; pos < end; pos++) {
+            items.put(item(pos));
+        }
+    }
+
+    private PagerItem item(int position) {
+        final PagerItem item = table.acquire();
+        item.setPosition(position);
+        return item;
+    }
+}
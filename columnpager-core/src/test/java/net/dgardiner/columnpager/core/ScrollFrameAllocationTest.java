@@ -0,0 +1,201 @@
+package net.dgardiner.columnpager.core;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that the core work done on every drag and settle frame (drag bounds, scroll position
+ * lookup, page offset and the window populate when the scroll crosses into another page)
+ * doesn't allocate, once the item table and lists have grown to the window size.
+ */
+public class ScrollFrameAllocationTest {
+    private static final int CLIENT_WIDTH = 1080;
+    private static final int MARGIN = 8;
+
+    private static final int OFFSCREEN_PAGE_LIMIT = 1;
+
+    // Pixels scrolled per frame
+    private static final int FRAME_DELTA = 37;
+
+    private static final int COUNT = 1000;
+
+    // Allowance for the occasional bytes attributed to the thread while the JIT recompiles the
+    // frame path, a single allocation per frame exceeds this within a hundred frames
+    private static final long SLACK_BYTES = 1024;
+
+    @Test
+    public void uniformFramesDontAllocate() {
+        for (int columns : new int[] { 1, 4 }) {
+            assertFramesDontAllocate(new Frames(columns, false));
+        }
+    }
+
+    @Test
+    public void variableFramesDontAllocate() {
+        for (int columns : new int[] { 1, 4 }) {
+            assertFramesDontAllocate(new Frames(columns, true));
+        }
+    }
+
+    //
+    // Helpers
+    //
+
+    private static void assertFramesDontAllocate(Frames frames) {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        assumeTrue(
+            "Thread allocation counters are unavailable",
+            bean instanceof com.sun.management.ThreadMXBean &&
+            ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+        );
+
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        final long threadId = Thread.currentThread().getId();
+
+        // Scroll over the whole range (twice, the window grows when the scroll wraps around),
+        // so storage has grown to its final size
+        final int cycle = frames.getCycleLength();
+        int result = frames.run(cycle * 2);
+
+        // First reading may allocate
+        threads.getThreadAllocatedBytes(threadId);
+
+        final long startBytes = threads.getThreadAllocatedBytes(threadId);
+        result += frames.run(cycle);
+        final long allocatedBytes = threads.getThreadAllocatedBytes(threadId) - startBytes;
+
+        assertTrue(
+            frames + " allocated " + allocatedBytes + " bytes over " + cycle + " frames (result: " + result + ")",
+            allocatedBytes <= SLACK_BYTES
+        );
+    }
+
+    /**
+     * Simulated scroll frames over the core pager classes.
+     */
+    private static class Frames implements PagerWindow.Callback {
+        private final PagerItemList items = new PagerItemList();
+        private final PagerItemTable table = new PagerItemTable();
+        private final PagerWindow window = new PagerWindow();
+        private final PageGeometry geometry = new PageGeometry();
+
+        private final int columns;
+        private final boolean variable;
+
+        private final int scrollRange;
+
+        private int currentItem;
+        private int scrollX;
+
+        Frames(int columns, boolean variable) {
+            this.columns = columns;
+            this.variable = variable;
+
+            geometry.update(CLIENT_WIDTH, columns, MARGIN);
+
+            if (variable) {
+                geometry.setWidthSource(new VariableWidthSource());
+            }
+
+            populate(0);
+
+            scrollRange = Math.max(1, geometry.getEndScrollOffset(COUNT - 1));
+        }
+
+        /**
+         * @return Number of frames to scroll over the whole range
+         */
+        int getCycleLength() {
+            return scrollRange / FRAME_DELTA + 1;
+        }
+
+        int run(int frames) {
+            int result = 0;
+
+            for (int i = 0; i < frames; i++) {
+                result += frame();
+            }
+
+            return result;
+        }
+
+        private int frame() {
+            scrollX = (scrollX + FRAME_DELTA) % scrollRange;
+
+            // performDrag: drag bounds of the populated window
+            final float leftBound = geometry.offsetOf(items.first().getPosition());
+            final float rightBound = geometry.getEndScrollOffset(items.last().getPosition());
+
+            final int x = (int) Math.max(leftBound, Math.min(scrollX, rightBound));
+
+            // pageScrolled: position and offset of the current scroll position
+            final int position = Math.max(0, Math.min(geometry.positionAt(x), COUNT - 1));
+
+            // populate: the scroll has crossed into another page
+            if (position != currentItem) {
+                populate(position);
+            }
+
+            final PagerItem item = items.get(position);
+
+            return x - geometry.offsetOf(position) + (item != null ? item.getWidth() : 0);
+        }
+
+        private void populate(int newCurrentItem) {
+            currentItem = newCurrentItem;
+
+            geometry.setAnchorPosition(currentItem);
+
+            // Pages prefetched in the scroll direction are kept
+            window.update(geometry, currentItem, COUNT, OFFSCREEN_PAGE_LIMIT);
+            window.keep(1, columns);
+            window.populate(items, this);
+
+            table.updateWidths(geometry);
+        }
+
+        @Override
+        public void createItem(int position, int index) {
+            final PagerItem item = table.acquire();
+
+            item.setPosition(position);
+            item.setIndex(index);
+            item.setWidth(geometry.widthOf(position));
+
+            items.put(item);
+        }
+
+        @Override
+        public void destroyItem(int position) {
+            table.release(items.remove(position));
+        }
+
+        @Override
+        public String toString() {
+            return "Frames (columns: " + columns + ", variable: " + variable + ")";
+        }
+    }
+
+    private static class VariableWidthSource implements PageGeometry.WidthSource {
+        @Override
+        public int getCount() {
+            return COUNT;
+        }
+
+        @Override
+        public boolean hasVariableWidths() {
+            return true;
+        }
+
+        @Override
+        public float getPageWidthFraction(int position) {
+            return (position % 3) == 0 ? 2f : 1f;
+        }
+    }
+}
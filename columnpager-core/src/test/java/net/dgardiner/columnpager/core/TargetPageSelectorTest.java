@@ -0,0 +1,170 @@
+package net.dgardiner.columnpager.core;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TargetPageSelectorTest {
+    private static final int CLIENT_WIDTH = 1080;
+    private static final float DENSITY = 2.625f;
+
+    // Pager defaults (in dips) converted to pixels
+    private static final int FLING_DISTANCE = (int) (25 * DENSITY);
+    private static final int MINIMUM_VELOCITY = (int) (400 * DENSITY);
+
+    @Test
+    public void emptyAdapterSelectsFirstPage() {
+        assertEquals(0, selector().select(geometry(1, 0), 500, 0, -5000, -500, 0));
+    }
+
+    @Test
+    public void slowReleaseSettlesOnNearestPage() {
+        final PageGeometry geometry = geometry(1, 0);
+        final TargetPageSelector selector = selector();
+
+        // The page is only changed once dragged past 60% of the page, in either direction
+        assertEquals(2, selector.select(geometry, 2 * CLIENT_WIDTH + 640, 2, -200, -640, 10));
+        assertEquals(3, selector.select(geometry, 2 * CLIENT_WIDTH + 660, 2, -200, -660, 10));
+
+        assertEquals(2, selector.select(geometry, CLIENT_WIDTH + 440, 2, 200, 640, 10));
+        assertEquals(1, selector.select(geometry, CLIENT_WIDTH + 420, 2, 200, 660, 10));
+    }
+
+    @Test
+    public void flingMovesAtLeastOnePage() {
+        final PageGeometry geometry = geometry(1, 0);
+        final TargetPageSelector selector = selector();
+
+        // Short flings that would come to rest on the current page
+        final int velocity = MINIMUM_VELOCITY + 1;
+
+        assertEquals(3, selector.select(geometry, 2 * CLIENT_WIDTH + 10, 2, -velocity, -FLING_DISTANCE - 1, 10));
+        assertEquals(1, selector.select(geometry, 2 * CLIENT_WIDTH - 10, 2, velocity, FLING_DISTANCE + 1, 10));
+    }
+
+    @Test
+    public void fastFlingSelectsNearestPageToRestPosition() {
+        final PageGeometry geometry = geometry(1, 0);
+        final TargetPageSelector selector = selector();
+
+        final int scrollX = 10 * CLIENT_WIDTH;
+        final int distance = (int) selector.getSplineFlingDistance(-12000);
+
+        assertTrue(distance > 2 * CLIENT_WIDTH);
+
+        final int rest = Math.round((float) (scrollX + distance) / CLIENT_WIDTH);
+
+        assertEquals(rest, selector.select(geometry, scrollX, 10, -12000, -500, 1000));
+        assertEquals(20 - rest, selector.select(geometry, scrollX, 10, 12000, 500, 1000));
+
+        // Faster flings travel further, for longer
+        assertTrue(selector.getSplineFlingDistance(12000) > selector.getSplineFlingDistance(6000));
+        assertTrue(selector.getSplineFlingDuration(12000) > selector.getSplineFlingDuration(6000));
+    }
+
+    @Test
+    public void targetStaysWithinAdapter() {
+        final TargetPageSelector selector = selector();
+        final Random random = new Random(42);
+
+        for (int columns : new int[] { 1, 3, 12 }) {
+            for (boolean variable : new boolean[] { false, true }) {
+                final PageGeometry geometry = geometry(columns, 8);
+                geometry.setWidthSource(new ThirdsWidthSource(100, variable));
+
+                final int scrollRange = geometry.getEndScrollOffset(99);
+
+                for (int i = 0; i < 1000; i++) {
+                    final int scrollX = random.nextInt(scrollRange + 1);
+                    final int currentItem = geometry.positionAt(scrollX);
+                    final int velocity = random.nextInt(40000) - 20000;
+                    final int deltaX = -velocity / 10;
+
+                    final int target = selector.select(geometry, scrollX, currentItem, velocity, deltaX, 100);
+
+                    assertTrue(target >= 0 && target < 100);
+
+                    if (Math.abs(deltaX) > FLING_DISTANCE && Math.abs(velocity) > MINIMUM_VELOCITY) {
+                        // Flings never settle against their direction
+                        if (velocity < 0) {
+                            assertTrue(target > currentItem || currentItem == 99);
+                        } else {
+                            assertTrue(target <= currentItem);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sampleGesturesLandOnRecordedPages() {
+        // Release states of the sample trace bundled with GestureReplay (1000 pages, one column)
+        final PageGeometry geometry = geometry(1, 0);
+        final TargetPageSelector selector = selector();
+
+        // Slow drag, settles back
+        assertEquals(0, selector.select(geometry, 118, 0, -446, -160, 1000));
+
+        // Short swipe, below the fling velocity
+        assertEquals(0, selector.select(geometry, 408, 0, -837, -450, 1000));
+
+        // Fling
+        assertEquals(1, selector.select(geometry, 338, 0, -4218, -380, 1000));
+
+        // Hard fling, crosses several pages
+        assertEquals(7, selector.select(geometry, 1958, 1, -10357, -920, 1000));
+
+        // Reverse fling
+        assertEquals(3, selector.select(geometry, 6902, 7, 8415, 700, 1000));
+    }
+
+    //
+    // Helpers
+    //
+
+    private static PageGeometry geometry(int columns, int margin) {
+        final PageGeometry geometry = new PageGeometry();
+        geometry.update(CLIENT_WIDTH, columns, margin);
+
+        return geometry;
+    }
+
+    private static TargetPageSelector selector() {
+        final TargetPageSelector selector = new TargetPageSelector();
+
+        selector.setFlingDistance(FLING_DISTANCE);
+        selector.setMinimumVelocity(MINIMUM_VELOCITY);
+        selector.setDensity(DENSITY);
+
+        return selector;
+    }
+
+    private static class ThirdsWidthSource implements PageGeometry.WidthSource {
+        private final int count;
+        private final boolean variable;
+
+        ThirdsWidthSource(int count, boolean variable) {
+            this.count = count;
+            this.variable = variable;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public boolean hasVariableWidths() {
+            return variable;
+        }
+
+        @Override
+        public float getPageWidthFraction(int position) {
+            return variable && (position % 3) == 0 ? 2f : 1f;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package net.dgardiner.columnpager;
 
 import android.content.Context;
 import android.content.res.TypedArray;
-import android.database.DataSetObserver;
 import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
@@ -26,11 +25,21 @@ import android.view.accessibility.AccessibilityEvent;
 import android.view.animation.Interpolator;
 import android.widget.Scroller;
 import net.dgardiner.columnpager.adapters.PagerAdapter;
+import net.dgardiner.columnpager.adapters.PagerAdapterObserver;
 import net.dgardiner.columnpager.adapters.PagerFragment;
+import net.dgardiner.columnpager.core.PageGeometry;
+import net.dgardiner.columnpager.core.PageGeometryCache;
 import net.dgardiner.columnpager.core.PagerItem;
+import net.dgardiner.columnpager.core.PagerItemList;
+import net.dgardiner.columnpager.core.PagerItemTable;
+import net.dgardiner.columnpager.core.PagerMetrics;
+import net.dgardiner.columnpager.core.PagerWindow;
+import net.dgardiner.columnpager.core.TargetPageSelector;
+import net.dgardiner.columnpager.util.PagerTrace;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -67,6 +76,7 @@ public class ColumnPager extends ViewGroup {
 
     private static final int DEFAULT_OFFSCREEN_PAGES = 1;
     private static final int MAX_SETTLE_DURATION = 600; // ms
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 1000000000L / 60;
     private static final int MIN_DISTANCE_FOR_FLING = 25; // dips
 
     private static final int DEFAULT_GUTTER_SIZE = 16; // dips
@@ -79,13 +89,6 @@ public class ColumnPager extends ViewGroup {
 
     private static final ViewPositionComparator sPositionComparator = new ViewPositionComparator();
 
-    private static final Comparator<PagerItem> COMPARATOR = new Comparator<PagerItem>(){
-        @Override
-        public int compare(PagerItem lhs, PagerItem rhs) {
-            return lhs.getPosition() - rhs.getPosition();
-        }
-    };
-
     private static final Interpolator sInterpolator = new Interpolator() {
         public float getInterpolation(float t) {
             t -= 1.0f;
@@ -124,6 +127,20 @@ public class ColumnPager extends ViewGroup {
      */
     public static final int SCROLL_STATE_SETTLING = 2;
 
+    /**
+     * Pixels remaining after dividing the width into columns pad the first and last columns
+     * displayed from the current item. Widths of pages entering and leaving those columns
+     * change when the current item changes.
+     */
+    public static final int REMAINDER_ANCHORED = PageGeometry.REMAINDER_ANCHORED;
+
+    /**
+     * Pixels remaining after dividing the width into columns pad pages by their position modulo
+     * the column count. Page widths don't depend on the current item, so changing pages doesn't
+     * re-measure them.
+     */
+    public static final int REMAINDER_MODULO = PageGeometry.REMAINDER_MODULO;
+
     public static final int POSITION_UNCHANGED = -1;
     public static final int POSITION_NONE = -2;
 
@@ -137,8 +154,44 @@ public class ColumnPager extends ViewGroup {
      */
     private int mExpectedAdapterCount;
 
-    private final ArrayList<PagerItem> mItems = new ArrayList<PagerItem>();
-    private final PagerItem mTempItem = new PagerItem();
+    private final PagerItemList mItems = new PagerItemList();
+    private final PagerItemTable mItemTable = new PagerItemTable();
+
+    private final PagerWindow mWindow = new PagerWindow();
+    private final PagerWindowCallback mWindowCallback = new PagerWindowCallback();
+
+    /**
+     * Prefetches pages in the scroll direction during idle frame time (API 16+).
+     */
+    private PagePrefetcher mPrefetcher;
+
+    /**
+     * Rolling metrics, only collected while a {@link MetricsListener} is set.
+     */
+    private MetricsListener mMetricsListener;
+    private PagerMetrics mMetrics;
+    private PagerMetrics mMetricsSnapshot;
+
+    /**
+     * Direction of pages that have been prefetched (-1, 0 or 1), and the number of prefetched
+     * pages beyond the offscreen page limit that populate should keep.
+     */
+    private int mPrefetchDirection;
+    private int mPrefetchExtent;
+
+    /**
+     * Set while a batch of adapter changes is being dispatched, populate is deferred until the
+     * batch has finished.
+     */
+    private boolean mBatchingUpdates;
+    private int mBatchStartItem;
+    private final ArrayList<PagerItem> mTempItems = new ArrayList<PagerItem>();
+
+    /**
+     * Child views of items, indexed by item row. Each child also references its item in its
+     * {@link LayoutParams}, both are updated as children are added and removed.
+     */
+    private View[] mItemChildren = new View[8];
 
     private final Rect mTempRect = new Rect();
 
@@ -161,15 +214,22 @@ public class ColumnPager extends ViewGroup {
     private int mTopPageBounds;
     private int mBottomPageBounds;
 
+    /**
+     * Geometries of recently used (client width, columns) pairs, switching back to one of
+     * them reuses its geometry.
+     */
+    private final PageGeometryCache mGeometries = new PageGeometryCache();
+    private PageGeometry mGeometry = mGeometries.get(0, 1, 0);
+    private final PagerWidthSource mWidthSource = new PagerWidthSource();
+
     private int mClientWidth;
     private int mPageWidth;
-    private int mRemainingWidth;
 
     // Offsets of the first and last items, if known.
     // Set during population, used to determine if we are at the beginning
     // or end of the pager data set during touch scrolling.
-    private float mFirstOffset = -Float.MAX_VALUE;
-    private float mLastOffset = Float.MAX_VALUE;
+    private int mFirstOffset = Integer.MIN_VALUE;
+    private int mLastOffset = Integer.MAX_VALUE;
 
     private int mChildWidthMeasureSpec;
     private int mChildHeightMeasureSpec;
@@ -178,6 +238,7 @@ public class ColumnPager extends ViewGroup {
     private boolean mScrollingCacheEnabled;
 
     private boolean mPopulatePending;
+    private boolean mPopulating;
     private int mOffscreenPageLimit = DEFAULT_OFFSCREEN_PAGES;
 
     private boolean mIsBeingDragged;
@@ -208,6 +269,8 @@ public class ColumnPager extends ViewGroup {
     private int mFlingDistance;
     private int mCloseEnough;
 
+    private final TargetPageSelector mTargetPageSelector = new TargetPageSelector();
+
     private boolean mFakeDragging;
     private long mFakeDragBeginTime;
 
@@ -290,6 +353,11 @@ public class ColumnPager extends ViewGroup {
         // Set scaled attributes
         mFlingDistance = (int) (MIN_DISTANCE_FOR_FLING * density);
         mCloseEnough = (int) (CLOSE_ENOUGH * density);
+
+        mTargetPageSelector.setFlingDistance(mFlingDistance);
+        mTargetPageSelector.setMinimumVelocity(mMinimumVelocity);
+        mTargetPageSelector.setDensity(density);
+        mTargetPageSelector.setFriction(ViewConfiguration.getScrollFriction());
         mDefaultGutterSize = (int) (DEFAULT_GUTTER_SIZE * density);
 
         // Setup view accessibility
@@ -363,9 +431,39 @@ public class ColumnPager extends ViewGroup {
     }
 
     public void setAdapter(PagerAdapter adapter) {
+        if (mAdapter != null) {
+            mAdapter.setColumnPagerObserver(null);
+            stopPrefetching();
+
+            // Destroy the current pages through the previous adapter
+            mAdapter.startUpdate(this);
+
+            for (int i = 0; i < mItems.size(); i++) {
+                final PagerItem item = mItems.itemAt(i);
+
+                destroyItemObject(item);
+                recyclePagerItem(item);
+            }
+
+            mAdapter.finishUpdate(this);
+            mItems.clear();
+
+            removeNonDecorViews();
+
+            mCurItem = 0;
+            scrollTo(0, 0);
+        }
+
         mAdapter = adapter;
+        mGeometries.setWidthSource(mAdapter != null ? mWidthSource : null);
 
         if(mAdapter != null) {
+            if (mObserver == null) {
+                mObserver = new PagerObserver();
+            }
+
+            mAdapter.setColumnPagerObserver(mObserver);
+            mExpectedAdapterCount = mAdapter.getCount();
             mPopulatePending = false;
 
             final boolean wasFirstLayout = mFirstLayout;
@@ -379,6 +477,18 @@ public class ColumnPager extends ViewGroup {
         }
     }
 
+    private void removeNonDecorViews() {
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+            final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+
+            if (!lp.isDecor) {
+                removeViewAt(i);
+                i--;
+            }
+        }
+    }
+
     // endregion
 
     // region Columns
@@ -388,25 +498,56 @@ public class ColumnPager extends ViewGroup {
     }
 
     public void setColumns(int value) {
+        if (mColumns == value) {
+            return;
+        }
+
         mColumns = value;
 
         if(mFirstLayout) {
             return;
         }
 
-        // Reset children
-        for(int i = 0; i < getChildCount(); ++i) {
-            LayoutParams lp = (LayoutParams) getChildAt(i).getLayoutParams();
-            lp.needsMeasure = true;
-            lp.width = 0;
-        }
+        // Switch to the geometry of the new column count before populating, so the window
+        // and page widths are calculated for it
+        refreshDimensions();
 
-        // Populate layout
+        // Populate layout, existing pages are kept and page widths are updated from the
+        // geometry of the new column count (pages are only re-measured if their width changed)
         mPopulatePending = false;
         populate();
 
-        // Refresh view
-        // TODO is this still required?
+        // Re-measure + scroll to the current item
+        requestLayout();
+    }
+
+    // endregion
+
+    // region RemainderMode
+
+    public int getRemainderMode() {
+        return mGeometries.getRemainderMode();
+    }
+
+    /**
+     * Set how pixels remaining after dividing the width into columns are distributed
+     * between pages.
+     *
+     * @param mode {@link #REMAINDER_ANCHORED} (default) or {@link #REMAINDER_MODULO}
+     */
+    public void setRemainderMode(int mode) {
+        if (!mGeometries.setRemainderMode(mode)) {
+            return;
+        }
+
+        if (mFirstLayout || mAdapter == null) {
+            return;
+        }
+
+        // Update page widths + offsets, and keep the current item in place
+        calculatePageOffsets();
+        scrollToItem(mCurItem, false);
+
         requestLayout();
     }
 
@@ -577,6 +718,37 @@ public class ColumnPager extends ViewGroup {
 
     // endregion
 
+    // region Metrics
+
+    /**
+     * Set a listener that will receive rolling pager metrics (instantiated/destroyed items,
+     * populate, measure and layout passes) roughly once per second.
+     *
+     * <p>Metrics are reported on the first pager event after each interval has elapsed, so
+     * an idle pager won't report anything. The {@link PagerMetrics} instance passed to the
+     * listener is reused, copy any values that need to be kept.</p>
+     *
+     * @param listener Listener to receive metrics, or null to stop collecting metrics
+     */
+    public void setMetricsListener(MetricsListener listener) {
+        mMetricsListener = listener;
+
+        if (listener == null) {
+            mMetrics = null;
+            mMetricsSnapshot = null;
+            return;
+        }
+
+        if (mMetrics == null) {
+            mMetrics = new PagerMetrics();
+            mMetricsSnapshot = new PagerMetrics();
+        }
+
+        mMetrics.reset(System.nanoTime());
+    }
+
+    // endregion
+
     // region ScrollState
 
     private void setScrollState(int newState) {
@@ -586,6 +758,12 @@ public class ColumnPager extends ViewGroup {
 
         mScrollState = newState;
 
+        if (newState != SCROLL_STATE_IDLE) {
+            startPrefetching();
+        } else {
+            stopPrefetching();
+        }
+
         if (mPageTransformer != null) {
             // PageTransformers can do complex things that benefit from hardware layers.
             enableLayers(newState != SCROLL_STATE_IDLE);
@@ -608,14 +786,25 @@ public class ColumnPager extends ViewGroup {
         final int scrollX = getScrollX();
 
         if (direction < 0) {
-            return (scrollX > (int) (mClientWidth * mFirstOffset));
+            return (scrollX > mFirstOffset);
         } else if (direction > 0) {
-            return (scrollX < (int) (mClientWidth * mLastOffset));
+            return (scrollX < mLastOffset);
         } else {
             return false;
         }
     }
 
+    /**
+     * Determine if the pager is populating its pages. Adapters may defer page changes made
+     * while populating until the next animation frame, page views are added before the next
+     * traversal and measured then.
+     *
+     * @return true if called during a populate pass
+     */
+    public boolean isPopulating() {
+        return mPopulating;
+    }
+
     // region Key Events
 
     /**
@@ -796,31 +985,18 @@ public class ColumnPager extends ViewGroup {
         return outRect;
     }
 
-    private int calculatePageWidth(int position) {
-        int pageWidth = mPageWidth;
-
-        if(mRemainingWidth < 1) {
-            return pageWidth;
-        }
-
-        if(position < mCurItem || position > mCurItem + getColumns() - 1) {
-            return pageWidth;
-        }
-
-        int pad = (int) Math.ceil(((float) mRemainingWidth) / getColumns());
-        int count = mRemainingWidth / pad;
-
-        int headCount = (int) Math.floor(((float) count) / 2);
-        int tailCount = count - headCount;
-
-        int headEnd = mCurItem + headCount;
-        int tailStart = mCurItem + getColumns() - tailCount - 1;
+    private PageGeometry getGeometry() {
+        // Padding is applied to the columns displayed from the current item
+        mGeometry.setAnchorPosition(mCurItem);
+        return mGeometry;
+    }
 
-        if(position < headEnd || position > tailStart) {
-            pageWidth += pad;
-        }
+    private int calculatePageWidth(int position) {
+        return getGeometry().widthOf(position);
+    }
 
-        return pageWidth;
+    private int calculatePageOffset(int position) {
+        return getGeometry().offsetOf(position);
     }
 
     private boolean pageLeft() {
@@ -885,7 +1061,9 @@ public class ColumnPager extends ViewGroup {
 
         mPopulatePending = false;
 
-        for (PagerItem item : mItems) {
+        for (int i = 0; i < mItems.size(); i++) {
+            final PagerItem item = mItems.itemAt(i);
+
             if (item.isScrolling()) {
                 needPopulate = true;
                 item.setScrolling(false);
@@ -923,36 +1101,93 @@ public class ColumnPager extends ViewGroup {
     // region PagerItem
 
     private PagerItem createPagerItem(int position, int index) {
-        PagerItem item = new PagerItem(position, index);
+        PagerTrace.beginSection(PagerTrace.CREATE_PAGER_ITEM);
+
+        final PagerItem item = mItemTable.acquire();
+
+        item.setPosition(position);
+        item.setIndex(index);
 
         // Update attributes
         item.setWidth(calculatePageWidth(position));
 
         // Instantiate item fragment
+        final long startNanos = startMetrics();
+
         Object object = mAdapter.instantiateItem(this, position);
 
+        if (mMetrics != null && startNanos != 0) {
+            final long now = System.nanoTime();
+
+            mMetrics.recordInstantiate(now - startNanos);
+            dispatchMetrics(now);
+        }
+
         if(object instanceof PagerFragment) {
             ((PagerFragment) object).setItem(item);
-        } else {
-            Log.w(TAG, " - Unsupported object: " + object);
         }
 
         item.setObject(object);
 
         // Add item to `mItems`
-        if (index < 0 || index >= mItems.size()) {
-            mItems.add(item);
-        } else {
-            mItems.add(index, item);
-        }
+        mItems.put(item);
 
         if(DEBUG) {
             Log.d(TAG, "Created new item: " + item);
         }
 
+        PagerTrace.endSection();
         return item;
     }
 
+    private void destroyPagerItem(int position) {
+        final PagerItem item = mItems.remove(position);
+
+        // Destroy item fragment
+        destroyItemObject(item);
+
+        if(DEBUG) {
+            Log.d(TAG, "Destroyed item: " + item);
+        }
+
+        recyclePagerItem(item);
+    }
+
+    private void destroyItemObject(PagerItem item) {
+        final long startNanos = startMetrics();
+
+        mAdapter.destroyItem(this, item.getPosition(), item.getObject());
+
+        if (mMetrics != null && startNanos != 0) {
+            final long now = System.nanoTime();
+
+            mMetrics.recordDestroy(now - startNanos);
+            dispatchMetrics(now);
+        }
+    }
+
+    /**
+     * Release a destroyed item back to the item table, the item must no longer be in `mItems`.
+     */
+    private void recyclePagerItem(PagerItem item) {
+        // Unbind item from its child
+        final int row = item.getRow();
+
+        if (row < mItemChildren.length && mItemChildren[row] != null) {
+            ((LayoutParams) mItemChildren[row].getLayoutParams()).item = null;
+            mItemChildren[row] = null;
+        }
+
+        // Detach item from its fragment, the fragment may outlive the item
+        final Object object = item.getObject();
+
+        if (object instanceof PagerFragment && ((PagerFragment) object).getItem() == item) {
+            ((PagerFragment) object).setItem(null);
+        }
+
+        mItemTable.release(item);
+    }
+
     private PagerItem infoForAnyChild(View child) {
         ViewParent parent;
 
@@ -968,83 +1203,141 @@ public class ColumnPager extends ViewGroup {
     }
 
     private PagerItem infoForChild(View child) {
-        for (int i = 0; i < mItems.size(); i++) {
-            PagerItem item = mItems.get(i);
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+
+        if (lp.item != null) {
+            return lp.item;
+        }
 
-            if (mAdapter.isViewFromObject(child, item.getObject())) {
-                return item;
+        if (lp.isDecor || child.getVisibility() == GONE) {
+            // Decor views and hidden pages retained by the adapter have no item
+            return null;
+        }
+
+        // Child was added before its item existed (e.g. during `instantiateItem`), search for
+        // the item and bind it to the child
+        return findItemForChild(child);
+    }
+
+    private PagerItem findItemForChild(View child) {
+        if (mAdapter == null) {
+            return null;
+        }
+
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+
+        // Check the item at the child's last known position first
+        PagerItem item = mItems.get(lp.position);
+
+        if (item == null || !mAdapter.isViewFromObject(child, item.getObject())) {
+            item = null;
+
+            for (int i = 0; i < mItems.size(); i++) {
+                if (mAdapter.isViewFromObject(child, mItems.itemAt(i).getObject())) {
+                    item = mItems.itemAt(i);
+                    break;
+                }
             }
         }
-        return null;
+
+        if (item != null) {
+            bindChild(child, item);
+        }
+
+        return item;
     }
 
-    private PagerItem infoForPosition(int position) {
-        for (PagerItem item : mItems) {
-            if (item.getPosition() == position) {
-                return item;
+    private View childForItem(PagerItem item) {
+        final int row = item.getRow();
+
+        if (row < mItemChildren.length && mItemChildren[row] != null) {
+            return mItemChildren[row];
+        }
+
+        // Child may not have been bound yet (its item didn't exist when it was added)
+        for (int i = 0; i < getChildCount(); i++) {
+            final View child = getChildAt(i);
+
+            if (infoForChild(child) == item) {
+                return child;
             }
         }
 
         return null;
     }
 
-    private PagerItem infoForCurrentScrollPosition() {
-        int lastPos = -1;
-        int lastOffset = 0;
-        int lastWidth = 0;
+    private void bindChild(View child, PagerItem item) {
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        final int row = item.getRow();
+
+        if (row >= mItemChildren.length) {
+            mItemChildren = Arrays.copyOf(mItemChildren, Math.max(row + 1, mItemChildren.length * 2));
+        }
 
-        boolean first = true;
-        PagerItem lastItem = null;
+        if (mItemChildren[row] != null && mItemChildren[row] != child) {
+            // Item was bound to another child
+            ((LayoutParams) mItemChildren[row].getLayoutParams()).item = null;
+        }
 
-        for (int i = 0; i < mItems.size(); i++) {
-            PagerItem ii = mItems.get(i);
-            int offset;
-
-            if (!first && ii.getPosition() != lastPos + 1) {
-                // Create a synthetic item for a missing page.
-                ii = mTempItem;
-                ii.setOffset(lastOffset + lastWidth + mPageMargin);
-                ii.setPosition(lastPos + 1);
-                ii.setWidth(mPageWidth);
-                i--;
-            }
+        lp.item = item;
+        lp.position = item.getPosition();
 
-            offset = ii.getOffset();
+        mItemChildren[row] = child;
+    }
 
-            final float leftBound = offset;
-            final float rightBound = offset + ii.getWidth() + mPageMargin;
+    private void unbindChild(View child) {
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
 
-            if (first || getScrollX() >= leftBound) {
-                if (getScrollX() < rightBound || i == mItems.size() - 1) {
-                    return ii;
-                }
-            } else {
-                return lastItem;
-            }
+        if (lp.item == null) {
+            return;
+        }
+
+        final int row = lp.item.getRow();
 
-            first = false;
-            lastPos = ii.getPosition();
-            lastOffset = offset;
-            lastWidth = ii.getWidth();
-            lastItem = ii;
+        if (row < mItemChildren.length && mItemChildren[row] == child) {
+            mItemChildren[row] = null;
         }
 
-        return lastItem;
+        lp.item = null;
+    }
+
+    private PagerItem infoForPosition(int position) {
+        return mItems.get(position);
+    }
+
+    private int positionForCurrentScroll() {
+        final int position = getGeometry().positionAt(getScrollX());
+
+        return Math.max(0, Math.min(position, mAdapter.getCount() - 1));
     }
 
     // endregion
 
     private void dataSetChanged() {
+        PagerTrace.beginSection(PagerTrace.DATA_SET_CHANGED);
+
         // This method only gets called if our observer is attached, so mAdapter is non-null.
         final int adapterCount = mAdapter.getCount();
         mExpectedAdapterCount = adapterCount;
 
-        boolean needPopulate = mItems.size() < mOffscreenPageLimit * 2 + 1 && mItems.size() < adapterCount;
+        // Page widths may have changed
+        mGeometries.invalidateWidths();
+
+        boolean needPopulate = mItems.size() < mOffscreenPageLimit * 2 + getColumns() && mItems.size() < adapterCount;
         int newCurrItem = mCurItem;
 
-        boolean isUpdating = false;
+        // Collect current items, `mItems` is rebuilt with the updated positions
+        mTempItems.clear();
+
         for (int i = 0; i < mItems.size(); i++) {
-            final PagerItem item = mItems.get(i);
+            mTempItems.add(mItems.itemAt(i));
+        }
+
+        mItems.clear();
+
+        boolean isUpdating = false;
+        for (int i = 0; i < mTempItems.size(); i++) {
+            final PagerItem item = mTempItems.get(i);
             final int newPos = mAdapter.getItemPosition(item.getObject());
 
             if (newPos == android.support.v4.view.PagerAdapter.POSITION_UNCHANGED) {
@@ -1052,7 +1345,7 @@ public class ColumnPager extends ViewGroup {
             }
 
             if (newPos == android.support.v4.view.PagerAdapter.POSITION_NONE) {
-                mItems.remove(i);
+                mTempItems.remove(i);
                 i--;
 
                 if (!isUpdating) {
@@ -1060,7 +1353,7 @@ public class ColumnPager extends ViewGroup {
                     isUpdating = true;
                 }
 
-                mAdapter.destroyItem(this, item.getPosition(), item.getObject());
+                destroyItemObject(item);
                 needPopulate = true;
 
                 if (mCurItem == item.getPosition()) {
@@ -1068,6 +1361,8 @@ public class ColumnPager extends ViewGroup {
                     newCurrItem = Math.max(0, Math.min(mCurItem, adapterCount - 1));
                     needPopulate = true;
                 }
+
+                recyclePagerItem(item);
                 continue;
             }
 
@@ -1086,7 +1381,11 @@ public class ColumnPager extends ViewGroup {
             mAdapter.finishUpdate(this);
         }
 
-        Collections.sort(mItems, COMPARATOR);
+        for (int i = 0; i < mTempItems.size(); i++) {
+            mItems.put(mTempItems.get(i));
+        }
+
+        mTempItems.clear();
 
         if (needPopulate) {
             // Reset our known page widths; populate will recompute them.
@@ -1104,101 +1403,273 @@ public class ColumnPager extends ViewGroup {
             setCurrentItemInternal(newCurrItem, false, true);
             requestLayout();
         }
+
+        PagerTrace.endSection();
     }
 
-    private void populate() {
-        populate(mCurItem);
+    private void updatesStarted() {
+        if (mBatchingUpdates) {
+            return;
+        }
+
+        mBatchingUpdates = true;
+        mBatchStartItem = mCurItem;
     }
 
-    private void populate(int newCurrentItem) {
-        if(DEBUG) {
-            Log.d(TAG, "populate(" + newCurrentItem + ")");
+    private void updatesFinished() {
+        if (!mBatchingUpdates) {
+            return;
         }
 
-        PagerItem oldCurInfo = null;
+        mBatchingUpdates = false;
+
+        // Restore the current item, so page selection is dispatched if it changed in the batch
+        final int newCurItem = mCurItem;
+        mCurItem = mBatchStartItem;
+
+        applyItemChanges(newCurItem);
+    }
 
-        if (mCurItem != newCurrentItem) {
-            oldCurInfo = infoForPosition(mCurItem);
-            mCurItem = newCurrentItem;
+    private void itemRangeInserted(int positionStart, int itemCount) {
+        if (itemCount <= 0) {
+            return;
         }
 
-        if(mAdapter == null) {
-            if(DEBUG) {
-                Log.d(TAG, " - No adapter available");
-            }
+        // Shift items after the insertion point
+        shiftItems(positionStart, Integer.MAX_VALUE, itemCount);
+        mGeometries.invalidateWidths();
+
+        // Follow the current item if it was shifted
+        applyItemChanges(mCurItem >= positionStart ? mCurItem + itemCount : mCurItem);
+    }
+
+    private void itemRangeRemoved(int positionStart, int itemCount) {
+        if (itemCount <= 0) {
             return;
         }
 
-        if(mPopulatePending) {
-            if (DEBUG) {
-                Log.d(TAG, " - Populate is pending, skipping for now...");
+        final int positionEnd = positionStart + itemCount;
+
+        // Destroy removed items
+        destroyItems(positionStart, positionEnd - 1);
+
+        // Shift items after the removed range
+        shiftItems(positionEnd, Integer.MAX_VALUE, -itemCount);
+        mGeometries.invalidateWidths();
+
+        // Follow the current item if it was shifted, or keep it at the start of the removed range
+        int newCurItem = mCurItem;
+
+        if (mCurItem >= positionEnd) {
+            newCurItem = mCurItem - itemCount;
+        } else if (mCurItem >= positionStart) {
+            newCurItem = positionStart;
+        }
+
+        applyItemChanges(newCurItem);
+    }
+
+    private void itemRangeChanged(int positionStart, int itemCount) {
+        if (itemCount <= 0) {
+            return;
+        }
+
+        // Destroy changed items, populate will recreate them
+        destroyItems(positionStart, positionStart + itemCount - 1);
+
+        // Only the changed page widths need to be refreshed
+        mGeometries.invalidateWidths(positionStart, itemCount);
+
+        applyItemChanges(mCurItem);
+    }
+
+    private void itemMoved(int fromPosition, int toPosition) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+
+        final PagerItem moved = mItems.remove(fromPosition);
+        int newCurItem = mCurItem;
+
+        // Shift items between the two positions
+        if (fromPosition < toPosition) {
+            shiftItems(fromPosition + 1, toPosition, -1);
+
+            if (mCurItem > fromPosition && mCurItem <= toPosition) {
+                newCurItem = mCurItem - 1;
+            }
+        } else {
+            shiftItems(toPosition, fromPosition - 1, 1);
+
+            if (mCurItem >= toPosition && mCurItem < fromPosition) {
+                newCurItem = mCurItem + 1;
             }
+        }
+
+        if (mCurItem == fromPosition) {
+            newCurItem = toPosition;
+        }
+
+        if (moved != null) {
+            moved.setPosition(toPosition);
+            mItems.put(moved);
+        }
+
+        mGeometries.invalidateWidths();
+
+        applyItemChanges(newCurItem);
+    }
+
+    /**
+     * Destroy items between `startPosition` and `endPosition` (inclusive).
+     */
+    private void destroyItems(int startPosition, int endPosition) {
+        startPosition = Math.max(startPosition, mItems.getFirstPosition());
+        endPosition = Math.min(endPosition, mItems.getLastPosition());
+
+        if (startPosition > endPosition) {
             return;
         }
 
         mAdapter.startUpdate(this);
 
-        final int N = mAdapter.getCount();
+        for (int i = 0; i < mItems.size(); i++) {
+            final int pos = mItems.itemAt(i).getPosition();
 
-        // Locate the currently focused item or add it if needed.
-        int curIndex = -1;
-        PagerItem curItem = null;
+            if (pos >= startPosition && pos <= endPosition) {
+                destroyPagerItem(pos);
 
-        for (curIndex = 0; curIndex < mItems.size(); curIndex++) {
-            final PagerItem item = mItems.get(curIndex);
+                // Item has been removed
+                i--;
+            }
+        }
 
-            if (item.getPosition() >= mCurItem) {
-                if (item.getPosition() == mCurItem) {
-                    curItem = item;
-                }
-                break;
+        mAdapter.finishUpdate(this);
+    }
+
+    /**
+     * Shift the positions of items between `startPosition` and `endPosition` (inclusive) by `delta`.
+     */
+    private void shiftItems(int startPosition, int endPosition, int delta) {
+        startPosition = Math.max(startPosition, mItems.getFirstPosition());
+        endPosition = Math.min(endPosition, mItems.getLastPosition());
+
+        if (startPosition > endPosition) {
+            return;
+        }
+
+        mTempItems.clear();
+
+        for (int i = 0; i < mItems.size(); i++) {
+            final PagerItem item = mItems.itemAt(i);
+
+            if (item.getPosition() >= startPosition && item.getPosition() <= endPosition) {
+                mTempItems.add(item);
             }
         }
 
-        if (curItem == null && N > 0) {
-            curItem = createPagerItem(mCurItem, curIndex);
+        for (int i = 0; i < mTempItems.size(); i++) {
+            mItems.remove(mTempItems.get(i).getPosition());
         }
 
-        // Create a PagerItem for each item in the adapter
-        // TODO limit items to: OFFSCREEN_ITEMS (left) + OFFSCREEN_ITEMS (right) + VISIBLE_ITEMS
-        if (curItem != null) {
-            int itemIndex = curIndex - 1;
-            PagerItem item = itemIndex >= 0 ? mItems.get(itemIndex) : null;
+        for (int i = 0; i < mTempItems.size(); i++) {
+            final PagerItem item = mTempItems.get(i);
 
-            // Create items before `mCurItem`
-            for (int pos = mCurItem - 1; pos >= 0; pos--) {
-                if (item != null && pos == item.getPosition()) {
-                    itemIndex--;
-                    item = itemIndex >= 0 ? mItems.get(itemIndex) : null;
-                } else {
-                    item = createPagerItem(pos, itemIndex + 1);
-                    curIndex++;
+            item.setPosition(item.getPosition() + delta);
+            mItems.put(item);
+        }
 
-                    item = itemIndex >= 0 ? mItems.get(itemIndex) : null;
-                }
+        mTempItems.clear();
+    }
+
+    /**
+     * Populate the pager after an incremental adapter change. Only items that have been
+     * created or resized are re-measured.
+     */
+    private void applyItemChanges(int newCurItem) {
+        if (mBatchingUpdates) {
+            // Track the current item, populate once the batch has finished
+            mCurItem = newCurItem;
+            return;
+        }
+
+        final int adapterCount = mAdapter.getCount();
+        mExpectedAdapterCount = adapterCount;
+
+        newCurItem = Math.max(0, Math.min(newCurItem, adapterCount - 1));
+
+        final boolean dispatchSelected = newCurItem != mCurItem;
+
+        if (mFirstLayout) {
+            mCurItem = newCurItem;
+
+            if (dispatchSelected) {
+                dispatchOnPageSelected(newCurItem);
             }
+            requestLayout();
+            return;
+        }
 
-            // Create items after `mCurItem`
-            itemIndex = curIndex + 1;
-            item = itemIndex < mItems.size() ? mItems.get(itemIndex) : null;
+        populate(newCurItem);
+        scrollToItem(newCurItem, false, 0, dispatchSelected);
 
-            for (int pos = mCurItem + 1; pos < N; pos++) {
-                if (item != null && pos == item.getPosition()) {
-                    itemIndex++;
-                    item = itemIndex < mItems.size() ? mItems.get(itemIndex) : null;
-                } else {
-                    item = createPagerItem(pos, itemIndex);
-                    itemIndex++;
+        // Item offsets may have changed
+        requestLayout();
+    }
 
-                    item = itemIndex < mItems.size() ? mItems.get(itemIndex) : null;
-                }
+    private void populate() {
+        populate(mCurItem);
+    }
+
+    private void populate(int newCurrentItem) {
+        if(DEBUG) {
+            Log.d(TAG, "populate(" + newCurrentItem + ")");
+        }
+
+        mCurItem = newCurrentItem;
+
+        if(mAdapter == null) {
+            if(DEBUG) {
+                Log.d(TAG, " - No adapter available");
+            }
+            return;
+        }
+
+        if(mPopulatePending) {
+            if (DEBUG) {
+                Log.d(TAG, " - Populate is pending, skipping for now...");
             }
+            return;
+        }
+
+        PagerTrace.beginSection(PagerTrace.POPULATE);
+        final long startNanos = startMetrics();
 
-            // Re-calculate page offsets
-            calculatePageOffsets(curItem, curIndex, oldCurInfo);
+        mPopulating = true;
+        mAdapter.startUpdate(this);
+
+        // Determine the window of positions to populate, this includes the visible
+        // columns plus `mOffscreenPageLimit` pages on either side.
+        mWindow.update(getGeometry(), mCurItem, mAdapter.getCount(), mOffscreenPageLimit);
+
+        // Pages prefetched in the scroll direction are kept
+        mWindow.keep(mPrefetchDirection, mPrefetchExtent);
+
+        // Destroy items that have left the window, and create any missing items
+        mWindow.populate(mItems, mWindowCallback);
+
+        if (DEBUG) {
+            Log.d(TAG, " - " + mWindow + ": created " + mWindow.getCreatedCount() + ", destroyed " + mWindow.getDestroyedCount());
         }
 
+        // Re-calculate page offsets
+        calculatePageOffsets();
+
+        final PagerItem curItem = mItems.get(mCurItem);
+        mAdapter.setPrimaryItem(this, mCurItem, curItem != null ? curItem.getObject() : null);
+
         mAdapter.finishUpdate(this);
+        mPopulating = false;
 
         // Check width measurement of current pages and drawing sort order.
         // Update LayoutParams as needed.
@@ -1210,11 +1681,11 @@ public class ColumnPager extends ViewGroup {
 
             lp.childIndex = i;
 
-            if (!lp.isDecor && lp.width == 0) {
-                // 0 means requery the adapter for this, it doesn't have a valid width.
+            if (!lp.isDecor) {
                 final PagerItem item = infoForChild(child);
 
                 if (item != null) {
+                    // Track the page width, children are only re-measured when it changes
                     lp.width = item.getWidth();
                     lp.position = item.getPosition();
                 }
@@ -1240,6 +1711,18 @@ public class ColumnPager extends ViewGroup {
                 }
             }
         }
+
+        PagerTrace.setCounter(PagerTrace.COUNTER_WINDOW_SIZE, mItems.size());
+        PagerTrace.setCounter(PagerTrace.COUNTER_CHILD_COUNT, getChildCount());
+
+        if (mMetrics != null && startNanos != 0) {
+            final long now = System.nanoTime();
+
+            mMetrics.recordPopulate(now - startNanos);
+            dispatchMetrics(now);
+        }
+
+        PagerTrace.endSection();
     }
 
     private void sortChildDrawingOrder() {
@@ -1252,174 +1735,274 @@ public class ColumnPager extends ViewGroup {
 
             final int childCount = getChildCount();
 
-            for (int i = 0; i < childCount; i++) {
-                final View child = getChildAt(i);
-                mDrawingOrderedChildren.add(child);
-            }
+            for (int i = 0; i < childCount; i++) {
+                final View child = getChildAt(i);
+                mDrawingOrderedChildren.add(child);
+            }
+
+            Collections.sort(mDrawingOrderedChildren, sPositionComparator);
+        }
+    }
+
+    private int getPopulateStart() {
+        return PagerWindow.startOf(mCurItem, mOffscreenPageLimit);
+    }
+
+    private int getPopulateEnd() {
+        return PagerWindow.endOf(getGeometry(), mCurItem, mAdapter.getCount(), mOffscreenPageLimit);
+    }
+
+    /**
+     * Create pages that have scrolled into view while settling towards the current item, and
+     * destroy pages the scroll has passed (outside of the current item window). Created pages
+     * are kept until the scroll has completed.
+     */
+    private void populateScrolledPages() {
+        if (mAdapter == null || mItems.isEmpty() || mPopulating) {
+            return;
+        }
+
+        final int N = mAdapter.getCount();
+        final int scrollX = getScrollX();
+
+        // Visible positions
+        final int first = Math.max(0, Math.min(getGeometry().positionAt(scrollX), N - 1));
+        final int last = Math.max(first, Math.min(getGeometry().positionAt(scrollX + mClientWidth - 1), N - 1));
+
+        final int direction = getScrollDirection();
+        final int populateStart = getPopulateStart();
+        final int populateEnd = getPopulateEnd();
+
+        boolean updating = false;
+
+        for (int i = 0; i < mItems.size(); i++) {
+            final int pos = mItems.itemAt(i).getPosition();
+            final boolean passed = direction > 0 ? pos < first : direction < 0 && pos > last;
+
+            if (!passed || (pos >= populateStart && pos <= populateEnd)) {
+                continue;
+            }
+
+            if (!updating) {
+                mAdapter.startUpdate(this);
+                updating = true;
+            }
+
+            destroyPagerItem(pos);
+
+            // Item has been removed
+            i--;
+        }
+
+        for (int pos = first; pos <= last; pos++) {
+            if (mItems.get(pos) != null) {
+                continue;
+            }
+
+            if(DEBUG) {
+                Log.d(TAG, "Populating scrolled item at position " + pos);
+            }
+
+            if (!updating) {
+                mAdapter.startUpdate(this);
+                updating = true;
+            }
+
+            final PagerItem item = createPagerItem(pos, pos - populateStart);
+            item.setScrolling(true);
+
+            // Measure page (if the adapter has added its view)
+            final View child = childForItem(item);
+
+            if (child != null) {
+                measurePage(child, item, getHeight(), false);
+            }
+        }
+
+        if (updating) {
+            mAdapter.finishUpdate(this);
+        }
+    }
+
+    // region Metrics
+
+    /**
+     * @return Start time of a measured operation, or 0 if metrics aren't being collected
+     */
+    private long startMetrics() {
+        return mMetrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Report metrics to the listener if the current interval has elapsed.
+     */
+    private void dispatchMetrics(long nowNanos) {
+        if (mMetrics == null || !mMetrics.roll(nowNanos, mMetricsSnapshot)) {
+            return;
+        }
 
-            Collections.sort(mDrawingOrderedChildren, sPositionComparator);
+        if (DEBUG) {
+            Log.v(TAG, "Metrics: " + mMetricsSnapshot);
         }
+
+        mMetricsListener.onMetrics(mMetricsSnapshot);
     }
 
-    private void calculatePageOffsets(PagerItem curItem, int curIndex, PagerItem oldCurInfo) {
-        if(DEBUG) {
-            Log.d(TAG, "calculatePageOffsets(" + curItem + ", " + curIndex + ", " + oldCurInfo + ")");
-        }
+    // endregion
 
-        boolean layoutChanged = false;
-        int pageWidth;
+    // region Prefetch
 
-        // Refresh cached dimensions
-        refreshDimensions();
+    private void startPrefetching() {
+        if (Build.VERSION.SDK_INT < 16) {
+            return;
+        }
 
-        // Fix up offsets for later layout.
-        if (oldCurInfo != null) {
-            final int oldCurPosition = oldCurInfo.getPosition();
+        if (mPrefetcher == null) {
+            mPrefetcher = new PagePrefetcher();
+        }
 
-            // Base offsets off of oldCurInfo.
-            if (oldCurPosition < curItem.getPosition()) {
-                int itemIndex = 0;
-                PagerItem item = null;
-                int offset = oldCurInfo.getOffset() + mPageMargin;
+        mPrefetcher.start();
+    }
 
-                for (int pos = oldCurPosition + 1; pos <= curItem.getPosition() && itemIndex < mItems.size(); pos++) {
-                    item = mItems.get(itemIndex);
+    private void stopPrefetching() {
+        if (mPrefetcher != null) {
+            mPrefetcher.stop();
+        }
 
-                    while (pos > item.getPosition() && itemIndex < mItems.size() - 1) {
-                        itemIndex++;
-                        item = mItems.get(itemIndex);
-                    }
+        // Prefetched pages will be destroyed by the next populate
+        mPrefetchDirection = 0;
+        mPrefetchExtent = 0;
+    }
 
-                    while (pos < item.getPosition()) {
-                        // We don't have an item populated for this,
-                        // ask the adapter for an offset.
-                        offset += mPageWidth + mPageMargin;
-                        pos++;
-                    }
+    /**
+     * @return Direction the pager is scrolling in (-1 backwards, 1 forwards, 0 if unknown)
+     */
+    private int getScrollDirection() {
+        if (mScrollState == SCROLL_STATE_SETTLING && !mScroller.isFinished()) {
+            return Integer.signum(mScroller.getFinalX() - mScroller.getCurrX());
+        }
 
-                    item.setWidth(calculatePageWidth(item.getPosition()));
+        if (mIsBeingDragged && mVelocityTracker != null) {
+            mVelocityTracker.computeCurrentVelocity(1000, mMaximumVelocity);
 
-                    item.setOffset(offset);
-                    offset += item.getWidth() + mPageMargin;
-                }
-            } else if (oldCurPosition > curItem.getPosition()) {
-                int itemIndex = mItems.size() - 1;
-                PagerItem item = null;
-                int offset = oldCurInfo.getOffset();
+            // Dragging to the left scrolls forwards
+            final float velocity = VelocityTrackerCompat.getXVelocity(mVelocityTracker, mActivePointerId);
 
-                for (int pos = oldCurPosition - 1; pos >= curItem.getPosition() && itemIndex >= 0; pos--) {
-                    item = mItems.get(itemIndex);
+            return velocity < 0 ? 1 : velocity > 0 ? -1 : 0;
+        }
 
-                    while (pos < item.getPosition() && itemIndex > 0) {
-                        itemIndex--;
-                        item = mItems.get(itemIndex);
-                    }
+        return 0;
+    }
 
-                    while (pos > item.getPosition()) {
-                        // We don't have an item populated for this,
-                        // ask the adapter for an offset.
-                        offset -= mPageWidth + mPageMargin;
-                        pos--;
-                    }
+    /**
+     * Create pages ahead of the populated window in the scroll direction, until `deadlineNanos`
+     * would be exceeded. At most one screen of columns is prefetched.
+     *
+     * @param deadlineNanos Deadline (in {@link System#nanoTime()}) of the current frame
+     * @param averageCreateNanos Average time taken to create a page
+     * @return Time taken to create the last page, or 0 if no pages were created
+     */
+    private long prefetchPages(long deadlineNanos, long averageCreateNanos) {
+        // Prefetching continues while a released drag settles (`mPopulatePending`), pages
+        // outside the populate window are kept by the populate that completes the scroll
+        if (mAdapter == null || mItems.isEmpty() || mFirstLayout) {
+            return 0;
+        }
 
-                    item.setWidth(calculatePageWidth(item.getPosition()));
+        final int direction = getScrollDirection();
 
-                    offset -= item.getWidth() + mPageMargin;
-                    item.setOffset(offset);
-                }
-            }
+        if (direction == 0) {
+            return 0;
         }
 
-        // Update current item
-        pageWidth = calculatePageWidth(curItem.getPosition());
+        if (direction != mPrefetchDirection) {
+            // Pages prefetched in the other direction will be destroyed by the next populate
+            mPrefetchDirection = direction;
+            mPrefetchExtent = 0;
+        }
 
-        curItem.setOffset(curItem.getPosition() * mPageWidth);
+        final int N = mAdapter.getCount();
+        long createNanos = 0;
 
-        if(curItem.getWidth() != pageWidth) {
-            curItem.setWidth(pageWidth);
-            layoutChanged = true;
+        while (true) {
+            final int position = direction > 0 ? mItems.getLastPosition() + 1 : mItems.getFirstPosition() - 1;
 
-            if(DEBUG) {
-                Log.v(TAG, "#" + curItem.getIndex() + " (" + curItem.getPosition() + ") Page width changed " +
-                        "(" + curItem.getWidth() + " -> " + pageWidth + ")");
+            if (position < 0 || position >= N) {
+                break;
             }
-        }
 
-        // Base all offsets off of curItem.
-        final int itemCount = mItems.size();
-        int offset = curItem.getOffset();
-        int pos = curItem.getPosition() - 1;
+            // Number of pages beyond the populate window
+            final int extent = direction > 0 ? position - getPopulateEnd() : getPopulateStart() - position;
 
-        // Update first + last offsets
-        mFirstOffset = 0;
-        mLastOffset = (mAdapter.getCount() - getColumns()) * mPageWidth;  // TODO this doesn't include padding
+            if (extent > getColumns()) {
+                break;
+            }
 
-        // Previous pages
-        for (int i = curIndex - 1; i >= 0; i--, pos--) {
-            final PagerItem item = mItems.get(i);
+            final long startNanos = System.nanoTime();
+
+            if (startNanos + averageCreateNanos > deadlineNanos) {
+                // Not enough time left in this frame
+                break;
+            }
 
-            // TODO this doesn't look right:
-            while (pos > item.getPosition()) {
-                offset -= mPageWidth + mPageMargin;
+            if(DEBUG) {
+                Log.d(TAG, "Prefetching item at position " + position);
             }
 
-            pageWidth = calculatePageWidth(item.getPosition());
+            mPrefetchExtent = Math.max(mPrefetchExtent, extent);
 
-            if(item.getWidth() != pageWidth) {
-                item.setWidth(pageWidth);
-                layoutChanged = true;
+            // Create page
+            mAdapter.startUpdate(this);
+            final PagerItem item = createPagerItem(position, position - getPopulateStart());
+            mAdapter.finishUpdate(this);
 
-                if(DEBUG) {
-                    Log.v(TAG, "#" + item.getIndex() + " (" + item.getPosition() + ") Page width changed " +
-                        "(" + item.getWidth() + " -> " + pageWidth + ")");
-                }
-            }
+            // Measure page (if the adapter has added its view)
+            final View child = childForItem(item);
 
-            offset -= item.getWidth() + mPageMargin;
-            item.setOffset(offset);
+            if (child != null) {
+                measurePage(child, item, getHeight(), false);
+            }
 
-//            if (item.getPosition() == 0) {
-//                mFirstOffset = offset;
-//            }
+            createNanos = System.nanoTime() - startNanos;
         }
 
-        offset = curItem.getOffset() + curItem.getWidth() + mPageMargin;
-        pos = curItem.getPosition() + 1;
+        return createNanos;
+    }
 
-        // Next pages
-        for (int i = curIndex + 1; i < itemCount; i++, pos++) {
-            final PagerItem item = mItems.get(i);
+    // endregion
 
-            // TODO this doesn't look right:
-            while (pos < item.getPosition()) {
-                offset += mPageWidth + mPageMargin;
-            }
+    private void calculatePageOffsets() {
+        if(DEBUG) {
+            Log.d(TAG, "calculatePageOffsets(" + mCurItem + ")");
+        }
 
-//            if (item.getPosition() == N - 1) {
-//                mLastOffset = offset + item.getWidth() - (mPageWidth * getColumns());
-//            }
+        PagerTrace.beginSection(PagerTrace.CALCULATE_PAGE_OFFSETS);
 
-            pageWidth = calculatePageWidth(item.getPosition());
+        // Refresh cached dimensions
+        refreshDimensions();
 
-            if(item.getWidth() != pageWidth) {
-                item.setWidth(pageWidth);
-                layoutChanged = true;
+        // Update first + last offsets
+        mFirstOffset = 0;
+        mLastOffset = Math.max(0, getGeometry().getEndScrollOffset(mAdapter.getCount() - 1));
 
-                if(DEBUG) {
-                    Log.v(TAG, "#" + item.getIndex() + " (" + item.getPosition() + ") Page width changed " +
-                        "(" + item.getWidth() + " -> " + pageWidth + ")");
-                }
-            }
+        // Update page widths, offsets are calculated from the geometry on demand
+        final boolean layoutChanged = mItemTable.updateWidths(getGeometry());
 
-            item.setOffset(offset);
-            offset += item.getWidth() + mPageMargin;
+        if(DEBUG && layoutChanged) {
+            Log.v(TAG, "Page widths changed");
         }
 
         mNeedCalculatePageOffsets = false;
 
         if(layoutChanged) {
+            if (mMetrics != null) {
+                mMetrics.recordOffsetLayoutRequest();
+            }
+
             requestLayout();
         }
+
+        PagerTrace.endSection();
     }
 
     private boolean resetTouch() {
@@ -1444,25 +2027,29 @@ public class ColumnPager extends ViewGroup {
         final float deltaX = mLastMotionX - x;
         mLastMotionX = x;
 
-        float oldScrollX = getScrollX();
-        float scrollX = oldScrollX + deltaX;
+        // Scroll by whole pixels (in integer arithmetic, floats lose pixels at large offsets),
+        // and don't lose the rounded component
+        final int scrollDelta = (int) deltaX;
+        mLastMotionX += deltaX - scrollDelta;
 
-        float leftBound = mFirstOffset;
-        float rightBound = mLastOffset;
+        long scrollX = (long) getScrollX() + scrollDelta;
+
+        int leftBound = mFirstOffset;
+        int rightBound = mLastOffset;
         boolean leftAbsolute = true;
         boolean rightAbsolute = true;
 
-        final PagerItem firstItem = mItems.get(0);
-        final PagerItem lastItem = mItems.get(mItems.size() - 1);
+        final PagerItem firstItem = mItems.first();
+        final PagerItem lastItem = mItems.last();
 
         if (firstItem.getPosition() != 0) {
             leftAbsolute = false;
-            leftBound = firstItem.getOffset();
+            leftBound = calculatePageOffset(firstItem.getPosition());
         }
 
         if (lastItem.getPosition() != mAdapter.getCount() - 1) {
             rightAbsolute = false;
-            rightBound = lastItem.getOffset() - (mPageWidth * (getColumns() - 1));
+            rightBound = getGeometry().getEndScrollOffset(lastItem.getPosition());
         }
 
         if (scrollX < leftBound) {
@@ -1479,8 +2066,6 @@ public class ColumnPager extends ViewGroup {
             scrollX = rightBound;
         }
 
-        // Don't lose the rounded component
-        mLastMotionX += scrollX - (int) scrollX;
         scrollTo((int) scrollX, getScrollY());
         pageScrolled((int) scrollX);
 
@@ -1524,9 +2109,14 @@ public class ColumnPager extends ViewGroup {
             // We are doing a jump by more than one page.  To avoid
             // glitches, we want to keep all current pages in the view
             // until the scroll ends.
-            for (PagerItem mItem : mItems) {
-                mItem.setScrolling(true);
+            for (int i = 0; i < mItems.size(); i++) {
+                mItems.itemAt(i).setScrolling(true);
             }
+
+            // Current pages are kept, so the target window can be populated before the scroll
+            // starts (a released drag would otherwise defer it until the scroll has settled).
+            // Pages crossed on the way are populated by computeScroll() as they come into view.
+            mPopulatePending = false;
         }
 
         final boolean dispatchSelected = mCurItem != item;
@@ -1551,12 +2141,11 @@ public class ColumnPager extends ViewGroup {
     }
 
     private void scrollToItem(int position, boolean smoothScroll, int velocity, boolean dispatchSelected) {
-        // Calculate X destination
-        final PagerItem curInfo = infoForPosition(position);
+        // Calculate X destination (offsets are known without the page being populated)
         int destX = 0;
 
-        if (curInfo != null) {
-            destX = (int) (Math.max(mFirstOffset, Math.min(curInfo.getOffset(), mLastOffset)));
+        if (mAdapter != null && position < mAdapter.getCount()) {
+            destX = Math.max(mFirstOffset, Math.min(calculatePageOffset(position), mLastOffset));
         }
 
         // Scroll to position
@@ -1609,7 +2198,7 @@ public class ColumnPager extends ViewGroup {
             }
         } else {
             final PagerItem item = infoForPosition(mCurItem);
-            final int scrollOffset = item != null ? (int) Math.min(item.getOffset(), mLastOffset) : 0;
+            final int scrollOffset = item != null ? Math.min(calculatePageOffset(mCurItem), mLastOffset) : 0;
 
             if (scrollOffset != getScrollX()) {
                 completeScroll(false);
@@ -1622,11 +2211,11 @@ public class ColumnPager extends ViewGroup {
         // Update client width
         mClientWidth = getMeasuredWidth() - getPaddingLeft() - getPaddingRight();
 
-        // Update page width
-        mPageWidth = (int) Math.floor(((float) mClientWidth) / getColumns());
+        // Retrieve geometry for the current dimensions
+        mGeometry = mGeometries.get(mClientWidth, getColumns(), mPageMargin);
 
-        // Update remaining width
-        mRemainingWidth = mClientWidth - (mPageWidth * getColumns());
+        // Update page width
+        mPageWidth = mGeometry.getPageWidth();
     }
 
     /**
@@ -1665,25 +2254,16 @@ public class ColumnPager extends ViewGroup {
         return checkV && ViewCompat.canScrollHorizontally(v, -dx);
     }
 
-    private int determineTargetPage(int currentPage, float pageOffset, int velocity, int deltaX) {
-        int targetPage;
-
-        if (Math.abs(deltaX) > mFlingDistance && Math.abs(velocity) > mMinimumVelocity) {
-            targetPage = velocity > 0 ? currentPage : currentPage + 1;
-        } else {
-            final float truncator = currentPage >= mCurItem ? 0.4f : 0.6f;
-            targetPage = (int) (currentPage + pageOffset + truncator);
-        }
-
-        if (mItems.size() > 0) {
-            final PagerItem firstItem = mItems.get(0);
-            final PagerItem lastItem = mItems.get(mItems.size() - 1);
-
-            // Only let the user target pages we have items for
-            targetPage = Math.max(firstItem.getPosition(), Math.min(targetPage, lastItem.getPosition()));
-        }
-
-        return targetPage;
+    /**
+     * Determine the page to settle on when a drag is released. Flings target the page nearest
+     * to where the fling would come to rest, which may be several pages away.
+     */
+    private int determineTargetPage(int velocity, int deltaX) {
+        return mTargetPageSelector.select(
+            getGeometry(), getScrollX(), mCurItem,
+            velocity, deltaX,
+            mAdapter.getCount()
+        );
     }
 
     private boolean pageScrolled(int xpos) {
@@ -1698,10 +2278,10 @@ public class ColumnPager extends ViewGroup {
             return false;
         }
 
-        final PagerItem item = infoForCurrentScrollPosition();
+        final int position = positionForCurrentScroll();
 
         mCalledSuper = false;
-        onPageScrolled(item.getPosition(), xpos - item.getOffset());
+        onPageScrolled(position, xpos - calculatePageOffset(position));
 
         if (!mCalledSuper) {
             throw new IllegalStateException("onPageScrolled did not call superclass implementation");
@@ -1747,12 +2327,15 @@ public class ColumnPager extends ViewGroup {
             int paddingRight = getPaddingRight();
             final int width = getWidth();
             final int childCount = getChildCount();
+            int decorCount = 0;
 
-            for (int i = 0; i < childCount; i++) {
+            for (int i = 0; i < childCount && decorCount < mDecorChildCount; i++) {
                 final View child = getChildAt(i);
                 final LayoutParams lp = (LayoutParams) child.getLayoutParams();
                 if (!lp.isDecor) continue;
 
+                decorCount++;
+
                 final int hgrav = lp.gravity & Gravity.HORIZONTAL_GRAVITY_MASK;
                 int childLeft = 0;
 
@@ -1815,7 +2398,10 @@ public class ColumnPager extends ViewGroup {
         }
 
         if (mOnPageChangeListeners != null) {
-            for (OnPageChangeListener listener : mOnPageChangeListeners) {
+            // Indexed loop, avoids allocating an iterator on every scroll frame
+            for (int i = 0, z = mOnPageChangeListeners.size(); i < z; i++) {
+                final OnPageChangeListener listener = mOnPageChangeListeners.get(i);
+
                 if (listener != null) {
                     listener.onPageScrolled(position, offset);
                 }
@@ -1833,7 +2419,10 @@ public class ColumnPager extends ViewGroup {
         }
 
         if (mOnPageChangeListeners != null) {
-            for (OnPageChangeListener listener : mOnPageChangeListeners) {
+            // Indexed loop, avoids allocating an iterator on every scroll frame
+            for (int i = 0, z = mOnPageChangeListeners.size(); i < z; i++) {
+                final OnPageChangeListener listener = mOnPageChangeListeners.get(i);
+
                 if (listener != null) {
                     listener.onPageSelected(position);
                 }
@@ -1851,7 +2440,10 @@ public class ColumnPager extends ViewGroup {
         }
 
         if (mOnPageChangeListeners != null) {
-            for (OnPageChangeListener listener : mOnPageChangeListeners) {
+            // Indexed loop, avoids allocating an iterator on every scroll frame
+            for (int i = 0, z = mOnPageChangeListeners.size(); i < z; i++) {
+                final OnPageChangeListener listener = mOnPageChangeListeners.get(i);
+
                 if (listener != null) {
                     listener.onPageScrollStateChanged(state);
                 }
@@ -1921,6 +2513,18 @@ public class ColumnPager extends ViewGroup {
         setScrollingCacheEnabled(true);
         setScrollState(SCROLL_STATE_SETTLING);
 
+        if (velocity != 0 && Math.abs(dx) > mClientWidth) {
+            // Multi-page fling, decelerate naturally and land exactly on `x`
+            final int flingVelocity = dx > 0 ? Math.abs(velocity) : -Math.abs(velocity);
+
+            mIsScrollStarted = false;
+            mScroller.fling(sx, sy, flingVelocity, 0, Math.min(sx, x), Math.max(sx, x), sy, sy);
+            mScroller.setFinalX(x);
+
+            ViewCompat.postInvalidateOnAnimation(this);
+            return;
+        }
+
         final int halfWidth = mClientWidth / 2;
         final float distanceRatio = Math.min(1f, 1.0f * Math.abs(dx) / mClientWidth);
         final float distance = halfWidth + halfWidth * distanceInfluenceForSnapDuration(distanceRatio);
@@ -2039,6 +2643,8 @@ public class ColumnPager extends ViewGroup {
 
     @Override
     public void computeScroll() {
+        PagerTrace.beginSection(PagerTrace.COMPUTE_SCROLL);
+
         mIsScrollStarted = true;
 
         if (!mScroller.isFinished() && mScroller.computeScrollOffset()) {
@@ -2053,16 +2659,22 @@ public class ColumnPager extends ViewGroup {
                 if (!pageScrolled(x)) {
                     mScroller.abortAnimation();
                     scrollTo(0, y);
+                } else if (mScrollState == SCROLL_STATE_SETTLING) {
+                    populateScrolledPages();
                 }
             }
 
             // Keep on drawing until the animation has finished.
             ViewCompat.postInvalidateOnAnimation(this);
+
+            PagerTrace.endSection();
             return;
         }
 
         // Done with scroll, clean up state.
         completeScroll(true);
+
+        PagerTrace.endSection();
     }
 
     @Override
@@ -2125,7 +2737,7 @@ public class ColumnPager extends ViewGroup {
                 final int height = getHeight() - getPaddingTop() - getPaddingBottom();
 
                 canvas.rotate(90);
-                canvas.translate(-getPaddingTop(), -(mLastOffset + (mPageWidth * getColumns())));
+                canvas.translate(-getPaddingTop(), -((float) mLastOffset + (mPageWidth * getColumns())));
                 mRightEdge.setSize(height, width);
                 needsInvalidate |= mRightEdge.draw(canvas);
                 canvas.restoreToCount(restoreCount);
@@ -2160,12 +2772,58 @@ public class ColumnPager extends ViewGroup {
         }
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        stopPrefetching();
+        super.onDetachedFromWindow();
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
     }
 
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        if (!isChildVisible(child)) {
+            // Child is entirely outside of the viewport
+            return false;
+        }
+
+        return super.drawChild(canvas, child, drawingTime);
+    }
+
+    /**
+     * Determine if `child` intersects the viewport (including any translation applied by a
+     * {@link PageTransformer}). Children that are scaled, rotated or animated are always
+     * considered visible.
+     */
+    private boolean isChildVisible(View child) {
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+
+        if (lp.isDecor || child.getAnimation() != null) {
+            return true;
+        }
+
+        if (child.getScaleX() != 1f || child.getScaleY() != 1f || child.getRotation() != 0f ||
+            child.getRotationX() != 0f || child.getRotationY() != 0f) {
+            return true;
+        }
+
+        // Padding is included, pages may be drawn there if the pager doesn't clip to padding
+        final int viewportLeft = getScrollX();
+        final int viewportRight = viewportLeft + getWidth();
+
+        final float translationX = child.getTranslationX();
+
+        return child.getRight() + translationX > viewportLeft &&
+            child.getLeft() + translationX < viewportRight;
+    }
+
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        PagerTrace.beginSection(PagerTrace.LAYOUT);
+        final long startNanos = startMetrics();
+
         int height = b - t;
 
         int paddingLeft = getPaddingLeft();
@@ -2183,59 +2841,56 @@ public class ColumnPager extends ViewGroup {
             final View child = getChildAt(i);
             final LayoutParams lp = (LayoutParams) child.getLayoutParams();
 
-            // Retrieve pager fragment
-            final PagerFragment fragment;
+            // Children measured by onMeasure are still waiting on this layout (they remain
+            // layout requested), don't measure them again
+            final boolean measuredInPass = lp.measuredInPass;
+            lp.measuredInPass = false;
 
-            if(child.getTag() != null && child.getTag() instanceof PagerFragment) {
-                fragment = (PagerFragment) child.getTag();
-            } else {
-                Log.w(TAG, " - Unsupported child tag: " + child.getTag());
+            if (child.getVisibility() == GONE) {
+                // Retained by the adapter (e.g. a hidden fragment)
                 continue;
             }
 
             // Retrieve pager item
-            final PagerItem item;
+            final PagerItem item = infoForChild(child);
 
-            if(fragment.getItem() != null) {
-                item = fragment.getItem();
-            } else {
-                Log.w(TAG, " - Unsupported fragment item: " + fragment.getItem());
+            if(item == null) {
+                Log.w(TAG, " - Unable to find item for child: " + child);
                 continue;
             }
 
-            int childLeft = paddingLeft + item.getOffset();
+            int childLeft = paddingLeft + calculatePageOffset(item.getPosition());
             int childTop = paddingTop;
 
-            if(lp.needsMeasure || lp.width != item.getWidth()) {
-                final int widthSpec = MeasureSpec.makeMeasureSpec(
-                    item.getWidth(),
-                    MeasureSpec.EXACTLY
-                );
+            // Measure child (if the page size or content changed)
+            final boolean measured = measurePage(child, item, height, measuredInPass);
 
-                final int heightSpec = MeasureSpec.makeMeasureSpec(
-                    height - paddingTop - paddingBottom,
-                    MeasureSpec.EXACTLY
-                );
+            // Position child
+            final int childWidth = child.getMeasuredWidth();
+            final int childHeight = child.getMeasuredHeight();
 
+            if (measured || child.isLayoutRequested() || child.getTop() != childTop ||
+                child.getWidth() != childWidth || child.getHeight() != childHeight) {
                 if (DEBUG) {
-                    Log.v(TAG, " - Measuring #" + i + " " + child);
+                    Log.v(TAG, " - Positioning #" + item.getIndex() + " (" + item.getPosition() + ") " + child + " f=" + item.getObject()
+                            + " - (" + childLeft + "," + childTop + ") "
+                            + childWidth + "x" + childHeight);
                 }
 
-                child.measure(widthSpec, heightSpec);
-                lp.needsMeasure = false;
-            }
+                child.layout(
+                    childLeft, childTop,
+                    childLeft + childWidth,
+                    childTop + childHeight
+                );
+            } else if (child.getLeft() != childLeft) {
+                // Page has only moved, shift it without a layout pass
+                if (DEBUG) {
+                    Log.v(TAG, " - Shifting #" + item.getIndex() + " (" + item.getPosition() + ") " + child
+                            + " by " + (childLeft - child.getLeft()));
+                }
 
-            if (DEBUG) {
-                Log.v(TAG, " - Positioning #" + item.getIndex() + " (" + item.getPosition() + ") " + child + " f=" + item.getObject()
-                        + " - (" + childLeft + "," + childTop + ") "
-                        + child.getMeasuredWidth() + "x" + child.getMeasuredHeight());
+                child.offsetLeftAndRight(childLeft - child.getLeft());
             }
-
-            child.layout(
-                childLeft, childTop,
-                childLeft + child.getMeasuredWidth(),
-                childTop + child.getMeasuredHeight()
-            );
         }
 
         // Update scroll position
@@ -2245,10 +2900,22 @@ public class ColumnPager extends ViewGroup {
 
         mCurColumns = mColumns;
         mFirstLayout = false;
+
+        if (mMetrics != null && startNanos != 0) {
+            final long now = System.nanoTime();
+
+            mMetrics.recordLayout(now - startNanos);
+            dispatchMetrics(now);
+        }
+
+        PagerTrace.endSection();
     }
 
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        PagerTrace.beginSection(PagerTrace.MEASURE);
+        final long startNanos = startMetrics();
+
         // For simple implementation, our internal size is always 0.
         // We depend on the container to specify the layout size of
         // our view.  We can't really know what it is since we will be
@@ -2267,7 +2934,7 @@ public class ColumnPager extends ViewGroup {
             final View child = getChildAt(i);
             final LayoutParams lp = (LayoutParams) child.getLayoutParams();
 
-            if(lp == null) {
+            if(lp == null || child.getVisibility() == GONE) {
                 continue;
             }
 
@@ -2305,21 +2972,83 @@ public class ColumnPager extends ViewGroup {
                 }
             }
 
-            final int widthSpec = MeasureSpec.makeMeasureSpec(widthSize, widthMode);
-            final int heightSpec = MeasureSpec.makeMeasureSpec(heightSize, heightMode);
-
-            if (DEBUG) {
-                Log.v(TAG, " - Measuring #" + i + " " + child);
+            if (!lp.isDecor && lp.width == 0) {
+                // Page width isn't known yet, the page will be measured during layout
+                continue;
             }
 
-            child.measure(widthSpec, heightSpec);
-            lp.needsMeasure = false;
+            measureChildIfNeeded(
+                child, lp,
+                MeasureSpec.makeMeasureSpec(widthSize, widthMode),
+                MeasureSpec.makeMeasureSpec(heightSize, heightMode),
+                false
+            );
+
+            lp.measuredInPass = true;
         }
 
         // Make sure we have created all fragments that we need to have shown.
         mInLayout = true;
         populate();
         mInLayout = false;
+
+        if (mMetrics != null && startNanos != 0) {
+            final long now = System.nanoTime();
+
+            mMetrics.recordMeasure(now - startNanos);
+            dispatchMetrics(now);
+        }
+
+        PagerTrace.endSection();
+    }
+
+    /**
+     * Measure the page `child` for `item`, if required.
+     *
+     * @param measuredInPass true if the child has been measured in this traversal
+     * @return true if the child was measured
+     */
+    private boolean measurePage(View child, PagerItem item, int height, boolean measuredInPass) {
+        final LayoutParams lp = (LayoutParams) child.getLayoutParams();
+        lp.width = item.getWidth();
+
+        return measureChildIfNeeded(
+            child, lp,
+            MeasureSpec.makeMeasureSpec(item.getWidth(), MeasureSpec.EXACTLY),
+            MeasureSpec.makeMeasureSpec(height - getPaddingTop() - getPaddingBottom(), MeasureSpec.EXACTLY),
+            measuredInPass
+        );
+    }
+
+    /**
+     * Measure `child` if it hasn't been measured with the provided specs, or its content
+     * has requested a layout.
+     *
+     * @param measuredInPass true if the child has been measured in this traversal (its layout
+     *                       request is still pending, but its content hasn't changed since)
+     * @return true if the child was measured
+     */
+    private boolean measureChildIfNeeded(View child, LayoutParams lp, int widthSpec, int heightSpec,
+                                         boolean measuredInPass) {
+        if (!lp.needsMeasure && (measuredInPass || !child.isLayoutRequested()) &&
+            lp.widthMeasureSpec == widthSpec && lp.heightMeasureSpec == heightSpec) {
+            return false;
+        }
+
+        if (DEBUG) {
+            Log.v(TAG, " - Measuring " + child);
+        }
+
+        child.measure(widthSpec, heightSpec);
+
+        if (mMetrics != null) {
+            mMetrics.recordChildMeasured();
+        }
+
+        lp.widthMeasureSpec = widthSpec;
+        lp.heightMeasureSpec = heightSpec;
+        lp.needsMeasure = false;
+        return true;
     }
 
     @Override
@@ -2600,16 +3329,11 @@ public class ColumnPager extends ViewGroup {
 
                     float initialVelocity = VelocityTrackerCompat.getXVelocity(mVelocityTracker, mActivePointerId);
 
-                    // Retrieve current item
-                    final PagerItem item = infoForCurrentScrollPosition();
-
                     // Retrieve pointer X position
                     final float x = MotionEventCompat.getX(ev, MotionEventCompat.findPointerIndex(ev, mActivePointerId));
 
                     // Determine target page
                     int nextPage = determineTargetPage(
-                        item.getPosition(),
-                        ((float)(getScrollX() - item.getOffset())) / mPageWidth,
                         (int) initialVelocity,
                         (int) (x - mInitialMotionX)
                     );
@@ -2651,6 +3375,23 @@ public class ColumnPager extends ViewGroup {
         return true;
     }
 
+    @Override
+    public void onViewAdded(View child) {
+        super.onViewAdded(child);
+
+        // Bind the child to its item
+        if (!((LayoutParams) child.getLayoutParams()).isDecor) {
+            findItemForChild(child);
+        }
+    }
+
+    @Override
+    public void onViewRemoved(View child) {
+        super.onViewRemoved(child);
+
+        unbindChild(child);
+    }
+
     // endregion
 
     // region Classes
@@ -2743,11 +3484,29 @@ public class ColumnPager extends ViewGroup {
          */
         boolean needsMeasure;
 
+        /**
+         * true if this view has been measured by onMeasure in the current traversal, cleared
+         * by onLayout.
+         */
+        boolean measuredInPass;
+
+        /**
+         * Measure specs the view was last measured with
+         */
+        int widthMeasureSpec;
+        int heightMeasureSpec;
+
         /**
          * Adapter position this view is for if !isDecor
          */
         int position;
 
+        /**
+         * Item this view is bound to, null if the view is a decor view or its item hasn't
+         * been found (or has been destroyed)
+         */
+        PagerItem item;
+
         /**
          * Current child index within the ColumnPager that this view occupies
          */
@@ -2771,7 +3530,103 @@ public class ColumnPager extends ViewGroup {
         }
     }
 
-    private class PagerObserver extends DataSetObserver {
+    /**
+     * Runs {@link #prefetchPages(long, long)} after each frame while the pager is scrolling,
+     * using the time remaining before the next frame is due.
+     */
+    private class PagePrefetcher implements Choreographer.FrameCallback, Runnable {
+        private boolean mScheduled;
+
+        private long mFrameTimeNanos;
+        private long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+        private long mAverageCreateNanos;
+
+        void start() {
+            if (mScheduled) {
+                return;
+            }
+
+            // Retrieve the display refresh rate
+            final Display display = Build.VERSION.SDK_INT >= 17 ? getDisplay() : null;
+
+            if (display != null && display.getRefreshRate() >= 30) {
+                mFrameIntervalNanos = (long) (1000000000 / display.getRefreshRate());
+            }
+
+            mScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void stop() {
+            if (!mScheduled) {
+                return;
+            }
+
+            mScheduled = false;
+
+            Choreographer.getInstance().removeFrameCallback(this);
+            removeCallbacks(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!mScheduled) {
+                return;
+            }
+
+            mFrameTimeNanos = frameTimeNanos;
+
+            // Run once this frame has been drawn
+            post(this);
+
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void run() {
+            if (!mScheduled) {
+                return;
+            }
+
+            final long createNanos = prefetchPages(mFrameTimeNanos + mFrameIntervalNanos, mAverageCreateNanos);
+
+            if (createNanos > 0) {
+                // Weight recent pages more heavily
+                mAverageCreateNanos = mAverageCreateNanos > 0 ?
+                    (mAverageCreateNanos * 3 + createNanos) / 4 :
+                    createNanos;
+            }
+        }
+    }
+
+    private class PagerWidthSource implements PageGeometry.WidthSource {
+        @Override
+        public int getCount() {
+            return mAdapter != null ? mAdapter.getCount() : 0;
+        }
+        @Override
+        public boolean hasVariableWidths() {
+            return mAdapter != null && mAdapter.hasVariableWidths();
+        }
+
+        @Override
+        public float getPageWidthFraction(int position) {
+            return mAdapter.getPageWidthFraction(position);
+        }
+    }
+
+    private class PagerWindowCallback implements PagerWindow.Callback {
+        @Override
+        public void createItem(int position, int index) {
+            createPagerItem(position, index);
+        }
+        @Override
+        public void destroyItem(int position) {
+            destroyPagerItem(position);
+        }
+    }
+
+    private class PagerObserver extends PagerAdapterObserver {
         @Override
         public void onChanged() {
             dataSetChanged();
@@ -2780,6 +3635,30 @@ public class ColumnPager extends ViewGroup {
         public void onInvalidated() {
             dataSetChanged();
         }
+        @Override
+        public void onUpdatesStarted() {
+            updatesStarted();
+        }
+        @Override
+        public void onUpdatesFinished() {
+            updatesFinished();
+        }
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            itemRangeInserted(positionStart, itemCount);
+        }
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            itemRangeRemoved(positionStart, itemCount);
+        }
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            itemRangeChanged(positionStart, itemCount);
+        }
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition) {
+            itemMoved(fromPosition, toPosition);
+        }
     }
 
     /**
@@ -2908,6 +3787,20 @@ public class ColumnPager extends ViewGroup {
         public void onAdapterChanged(PagerAdapter oldAdapter, PagerAdapter newAdapter);
     }
 
+    /**
+     * Callback interface for receiving rolling pager metrics.
+     *
+     * @see ColumnPager#setMetricsListener(MetricsListener)
+     */
+    public interface MetricsListener {
+        /**
+         * Called with the metrics collected over the last interval.
+         *
+         * @param metrics Collected metrics, reused between calls
+         */
+        public void onMetrics(PagerMetrics metrics);
+    }
+
     /**
      * Callback interface for responding to changing state of the selected page.
      */
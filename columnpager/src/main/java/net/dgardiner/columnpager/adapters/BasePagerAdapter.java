@@ -2,15 +2,30 @@ package net.dgardiner.columnpager.adapters;
 
 import android.database.DataSetObservable;
 import android.database.DataSetObserver;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcelable;
 import android.view.View;
 import android.view.ViewGroup;
 import net.dgardiner.columnpager.ColumnPager;
+import net.dgardiner.columnpager.core.ItemIdDiff;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public abstract class BasePagerAdapter implements PagerAdapter {
+    private static ExecutorService sDiffExecutor;
+
     private final DataSetObservable mObservable = new DataSetObservable();
     private DataSetObserver mColumnPagerObserver;
 
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private Executor mDiffExecutor;
+
+    private long[] mItemIds;
+    private int mItemIdsGeneration;
+
     @Override
     public abstract int getCount();
 
@@ -31,6 +46,9 @@ public abstract class BasePagerAdapter implements PagerAdapter {
         );
     }
 
+    @Override
+    public void setPrimaryItem(ViewGroup container, int position, Object object) {}
+
     @Override
     public void finishUpdate(ViewGroup container) {}
 
@@ -50,6 +68,91 @@ public abstract class BasePagerAdapter implements PagerAdapter {
         return ColumnPager.POSITION_UNCHANGED;
     }
 
+    /**
+     * Returns false, every page is one column wide. Override along with
+     * {@link #getPageWidthFraction(int)} to display pages that span multiple columns.
+     */
+    @Override
+    public boolean hasVariableWidths() {
+        return false;
+    }
+
+    /**
+     * Returns 1 (a single column), only called if {@link #hasVariableWidths()} returns true.
+     */
+    @Override
+    public float getPageWidthFraction(int position) {
+        return 1f;
+    }
+
+    /**
+     * Return a stable ID for the item at `position`. The default implementation returns the
+     * IDs provided to {@link #submitItemIds(long[], Runnable)}, or the position if no IDs
+     * have been submitted.
+     *
+     * @param position Position of the item
+     * @return Stable ID of the item
+     */
+    public long getItemId(int position) {
+        if (mItemIds != null && position < mItemIds.length) {
+            return mItemIds[position];
+        }
+
+        return position;
+    }
+
+    /**
+     * Set the executor used to calculate item ID diffs, defaults to a shared background thread.
+     *
+     * @param executor Executor to calculate diffs on
+     */
+    public void setDiffExecutor(Executor executor) {
+        mDiffExecutor = executor;
+    }
+
+    /**
+     * Submit an updated list of stable item IDs.
+     *
+     * <p>The diff against the current item IDs is calculated on a background thread. Once complete,
+     * `commitCallback` is run on the main thread, where the application should swap in the data
+     * backing this adapter. The resulting move, insert and remove operations are then dispatched
+     * to the pager as a single update, keeping the pages of items that still exist.</p>
+     *
+     * <p>If another list is submitted before the diff completes, the earlier list is discarded.</p>
+     *
+     * @param itemIds Updated item IDs (must be unique)
+     * @param commitCallback Callback that swaps in the updated data, may be null
+     */
+    public void submitItemIds(final long[] itemIds, final Runnable commitCallback) {
+        final long[] previousIds = mItemIds != null ? mItemIds : getPositionIds(getCount());
+        final int generation = ++mItemIdsGeneration;
+
+        getDiffExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final ItemIdDiff diff = ItemIdDiff.calculate(previousIds, itemIds);
+
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mItemIdsGeneration) {
+                            // A newer list has been submitted
+                            return;
+                        }
+
+                        mItemIds = itemIds;
+
+                        if (commitCallback != null) {
+                            commitCallback.run();
+                        }
+
+                        notifyItemIdDiff(diff);
+                    }
+                });
+            }
+        });
+    }
+
     /**
      * This method should be called by the application if the data backing this adapter has changed
      * and associated views should update.
@@ -63,6 +166,163 @@ public abstract class BasePagerAdapter implements PagerAdapter {
         mObservable.notifyChanged();
     }
 
+    /**
+     * This method should be called by the application if `itemCount` items have been inserted
+     * into the data backing this adapter at `positionStart`.
+     *
+     * @param positionStart Position of the first inserted item
+     * @param itemCount Number of items inserted
+     */
+    public void notifyItemRangeInserted(int positionStart, int itemCount) {
+        onItemRangeInserted(positionStart, itemCount);
+
+        synchronized (this) {
+            if (mColumnPagerObserver instanceof PagerAdapterObserver) {
+                ((PagerAdapterObserver) mColumnPagerObserver).onItemRangeInserted(positionStart, itemCount);
+            } else if (mColumnPagerObserver != null) {
+                mColumnPagerObserver.onChanged();
+            }
+        }
+        mObservable.notifyChanged();
+    }
+
+    /**
+     * This method should be called by the application if `itemCount` items, starting at
+     * `positionStart`, have been removed from the data backing this adapter.
+     *
+     * @param positionStart Position of the first removed item (prior to removal)
+     * @param itemCount Number of items removed
+     */
+    public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        onItemRangeRemoved(positionStart, itemCount);
+
+        synchronized (this) {
+            if (mColumnPagerObserver instanceof PagerAdapterObserver) {
+                ((PagerAdapterObserver) mColumnPagerObserver).onItemRangeRemoved(positionStart, itemCount);
+            } else if (mColumnPagerObserver != null) {
+                mColumnPagerObserver.onChanged();
+            }
+        }
+        mObservable.notifyChanged();
+    }
+
+    /**
+     * This method should be called by the application if the data for `itemCount` items,
+     * starting at `positionStart`, has changed and their pages should be recreated.
+     *
+     * @param positionStart Position of the first changed item
+     * @param itemCount Number of items changed
+     */
+    public void notifyItemRangeChanged(int positionStart, int itemCount) {
+        onItemRangeChanged(positionStart, itemCount);
+
+        synchronized (this) {
+            if (mColumnPagerObserver instanceof PagerAdapterObserver) {
+                ((PagerAdapterObserver) mColumnPagerObserver).onItemRangeChanged(positionStart, itemCount);
+            } else if (mColumnPagerObserver != null) {
+                mColumnPagerObserver.onChanged();
+            }
+        }
+        mObservable.notifyChanged();
+    }
+
+    /**
+     * This method should be called by the application if an item in the data backing this
+     * adapter has been moved from `fromPosition` to `toPosition`.
+     *
+     * @param fromPosition Previous position of the item
+     * @param toPosition New position of the item
+     */
+    public void notifyItemMoved(int fromPosition, int toPosition) {
+        onItemMoved(fromPosition, toPosition);
+
+        synchronized (this) {
+            if (mColumnPagerObserver instanceof PagerAdapterObserver) {
+                ((PagerAdapterObserver) mColumnPagerObserver).onItemMoved(fromPosition, toPosition);
+            } else if (mColumnPagerObserver != null) {
+                mColumnPagerObserver.onChanged();
+            }
+        }
+        mObservable.notifyChanged();
+    }
+
+    /**
+     * Dispatch the operations in `diff` to the pager as a single update.
+     *
+     * @param diff Diff of the data backing this adapter
+     */
+    public void notifyItemIdDiff(ItemIdDiff diff) {
+        synchronized (this) {
+            final PagerAdapterObserver observer = mColumnPagerObserver instanceof PagerAdapterObserver ?
+                (PagerAdapterObserver) mColumnPagerObserver : null;
+
+            if (observer != null) {
+                observer.onUpdatesStarted();
+            }
+
+            diff.dispatch(new ItemIdDiff.Callback() {
+                @Override
+                public void onInserted(int position, int count) {
+                    onItemRangeInserted(position, count);
+
+                    if (observer != null) {
+                        observer.onItemRangeInserted(position, count);
+                    }
+                }
+
+                @Override
+                public void onRemoved(int position, int count) {
+                    onItemRangeRemoved(position, count);
+
+                    if (observer != null) {
+                        observer.onItemRangeRemoved(position, count);
+                    }
+                }
+
+                @Override
+                public void onMoved(int fromPosition, int toPosition) {
+                    onItemMoved(fromPosition, toPosition);
+
+                    if (observer != null) {
+                        observer.onItemMoved(fromPosition, toPosition);
+                    }
+                }
+            });
+
+            if (observer != null) {
+                observer.onUpdatesFinished();
+            } else if (mColumnPagerObserver != null) {
+                mColumnPagerObserver.onChanged();
+            }
+        }
+        mObservable.notifyChanged();
+    }
+
+    /**
+     * Called when `itemCount` items have been inserted at `positionStart`, before the pager
+     * is notified. Subclasses that track pages by position should shift them.
+     */
+    protected void onItemRangeInserted(int positionStart, int itemCount) {}
+
+    /**
+     * Called when `itemCount` items starting at `positionStart` have been removed, before the
+     * pager is notified.
+     */
+    protected void onItemRangeRemoved(int positionStart, int itemCount) {}
+
+    /**
+     * Called when the data for `itemCount` items starting at `positionStart` has changed, before
+     * the pager is notified. Pages of the items are recreated, subclasses that retain pages
+     * should discard them.
+     */
+    protected void onItemRangeChanged(int positionStart, int itemCount) {}
+
+    /**
+     * Called when an item has been moved from `fromPosition` to `toPosition`, before the pager
+     * is notified.
+     */
+    protected void onItemMoved(int fromPosition, int toPosition) {}
+
     @Override
     public void registerDataSetObserver(DataSetObserver observer) {
         mObservable.registerObserver(observer);
@@ -79,4 +339,28 @@ public abstract class BasePagerAdapter implements PagerAdapter {
             mColumnPagerObserver = observer;
         }
     }
+
+    private Executor getDiffExecutor() {
+        if (mDiffExecutor != null) {
+            return mDiffExecutor;
+        }
+
+        synchronized (BasePagerAdapter.class) {
+            if (sDiffExecutor == null) {
+                sDiffExecutor = Executors.newSingleThreadExecutor();
+            }
+
+            return sDiffExecutor;
+        }
+    }
+
+    private static long[] getPositionIds(int count) {
+        final long[] ids = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            ids[i] = i;
+        }
+
+        return ids;
+    }
 }
@@ -3,16 +3,98 @@ package net.dgardiner.columnpager.adapters;
 import android.support.v4.app.Fragment;
 import android.support.v4.app.FragmentManager;
 import android.support.v4.app.FragmentTransaction;
+import android.support.v4.util.LongSparseArray;
+import android.support.v4.view.ViewCompat;
+import android.os.Parcelable;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
+import net.dgardiner.columnpager.ColumnPager;
+import net.dgardiner.columnpager.util.PagerTrace;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adapter that displays {@link PagerFragment}s as pages.
+ *
+ * <p>Pages that leave the pager window are retained in tiers, based on their distance from
+ * the visible columns (the primary item and the columns following it):</p>
+ * <ul>
+ *     <li><b>Hidden</b>: the fragment is hidden, keeping its view so it can be shown again
+ *     immediately.</li>
+ *     <li><b>Saved state</b>: the fragment is removed, its {@link Fragment.SavedState} is kept
+ *     in a bounded LRU and restored when the page is next created.</li>
+ *     <li><b>Dropped</b>: the fragment is removed along with its state.</li>
+ * </ul>
+ *
+ * <p>Each tier has a maximum distance and a maximum number of pages, see
+ * {@link #setHiddenTier(int, int)} and {@link #setSavedStateTier(int, int)}.</p>
+ *
+ * <p>Fragment operations made while the pager is populating are queued and committed as a
+ * single transaction on the next animation frame (before the next traversal), operations
+ * that cancel each other out within a frame (e.g. hiding and showing a page) are dropped.
+ * Updates made outside of a populate pass (e.g. prefetched pages) are committed
+ * before {@link #finishUpdate(ViewGroup)} returns.</p>
+ */
 public abstract class FragmentPagerAdapter extends BasePagerAdapter {
     private static final String TAG = "FragmentPagerAdapter";
-    private static final boolean DEBUG = true;
+    private static final String TAG_PREFIX = "android:switcher:";
+    private static final boolean DEBUG = false;
+
+    private static final int DEFAULT_HIDDEN_DISTANCE = 4;
+    private static final int DEFAULT_HIDDEN_COUNT = 4;
+    private static final int DEFAULT_SAVED_STATE_DISTANCE = 16;
+    private static final int DEFAULT_SAVED_STATE_COUNT = 16;
+
+    private static final int OP_ADD = 1;
+    private static final int OP_REMOVE = 2;
+    private static final int OP_ATTACH = 3;
+    private static final int OP_HIDE = 4;
+    private static final int OP_SHOW = 5;
 
     private final FragmentManager mFragmentManager;
-    private FragmentTransaction mCurTransaction = null;
+
+    // Pending fragment operations (in order), and the last pending operation for each fragment
+    private final ArrayList<PendingOp> mPendingOps = new ArrayList<PendingOp>();
+    private final IdentityHashMap<Fragment, PendingOp> mPendingFragmentOps = new IdentityHashMap<Fragment, PendingOp>();
+    private boolean mCommitScheduled;
+
+    private final Runnable mCommitRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mCommitScheduled = false;
+            executePendingUpdates();
+        }
+    };
+
+    // Fragments added by this adapter (keyed by item ID)
+    private final LongSparseArray<Fragment> mFragments = new LongSparseArray<Fragment>();
+    private int mFragmentsContainerId;
+    private boolean mFragmentsValid;
+
+    // Pages instantiated in the pager, the item ID is recorded when the page is instantiated
+    // (the adapter data may have changed by the time the page is destroyed)
+    private final IdentityHashMap<Fragment, ActivePage> mActivePages = new IdentityHashMap<Fragment, ActivePage>();
+
+    // Visible columns (from the primary item)
+    private int mPrimaryPosition;
+    private int mPrimaryColumns = 1;
+
+    // Hidden pages (in the order they were hidden)
+    private final LinkedHashMap<Long, RetainedPage> mHiddenPages = new LinkedHashMap<Long, RetainedPage>();
+    private int mHiddenDistance = DEFAULT_HIDDEN_DISTANCE;
+    private int mHiddenCount = DEFAULT_HIDDEN_COUNT;
+
+    // Saved page states (in access order)
+    private final LinkedHashMap<Long, RetainedPage> mSavedPages = new LinkedHashMap<Long, RetainedPage>(16, 0.75f, true);
+    private int mSavedStateDistance = DEFAULT_SAVED_STATE_DISTANCE;
+    private int mSavedStateCount = DEFAULT_SAVED_STATE_COUNT;
 
     public FragmentPagerAdapter(FragmentManager fragmentManager) {
         mFragmentManager = fragmentManager;
@@ -23,10 +105,30 @@ public abstract class FragmentPagerAdapter extends BasePagerAdapter {
     @Override
     public abstract int getCount();
 
-    // region Public methods
+    // region Tiers
+
+    /**
+     * Set the limits of the hidden tier, destroyed pages within `maxDistance` of the visible
+     * columns are hidden (keeping their views).
+     *
+     * @param maxDistance Maximum distance from the visible columns (0 to disable the tier)
+     * @param maxCount Maximum number of hidden pages
+     */
+    public void setHiddenTier(int maxDistance, int maxCount) {
+        mHiddenDistance = maxDistance;
+        mHiddenCount = maxCount;
+    }
 
-    public long getItemId(int position) {
-        return position;
+    /**
+     * Set the limits of the saved state tier, destroyed pages within `maxDistance` of the
+     * visible columns (that aren't hidden) keep their saved state.
+     *
+     * @param maxDistance Maximum distance from the visible columns (0 to disable the tier)
+     * @param maxCount Maximum number of saved states
+     */
+    public void setSavedStateTier(int maxDistance, int maxCount) {
+        mSavedStateDistance = maxDistance;
+        mSavedStateCount = maxCount;
     }
 
     // endregion
@@ -35,61 +137,207 @@ public abstract class FragmentPagerAdapter extends BasePagerAdapter {
 
     @Override
     public Object instantiateItem(ViewGroup container, int position) {
-        if (mCurTransaction == null) {
-            mCurTransaction = mFragmentManager.beginTransaction();
-        }
-
         final long itemId = getItemId(position);
 
         // Do we already have this fragment?
-        String name = makeFragmentName(container.getId(), itemId);
-        Fragment fragment = mFragmentManager.findFragmentByTag(name);
+        Fragment fragment = findFragment(container, itemId);
 
         if (fragment != null && fragment instanceof PagerFragment) {
-            if (DEBUG) {
-                Log.v(TAG, "Attaching item #" + itemId + ": f=" + fragment);
-            }
+            mHiddenPages.remove(itemId);
+
+            final PendingOp pending = mPendingFragmentOps.get(fragment);
+
+            if (fragment.isHidden() || (pending != null && pending.type == OP_HIDE)) {
+                if (DEBUG) {
+                    Log.v(TAG, "Showing item #" + itemId + ": f=" + fragment);
+                }
+
+                enqueue(OP_SHOW, fragment);
+            } else if (!isPendingAdd(fragment)) {
+                if (DEBUG) {
+                    Log.v(TAG, "Attaching item #" + itemId + ": f=" + fragment);
+                }
 
-            mCurTransaction.attach(fragment);
+                enqueue(OP_ATTACH, fragment);
+            }
         } else {
             fragment = getItem(position);
 
+            // Restore saved state (if available)
+            final RetainedPage saved = mSavedPages.remove(itemId);
+
+            if (saved != null) {
+                fragment.setInitialSavedState(saved.state);
+            }
+
             if (DEBUG) {
-                Log.v(TAG, "Adding item #" + itemId + ": f=" + fragment);
+                Log.v(TAG, "Adding item #" + itemId + ": f=" + fragment + " restored=" + (saved != null));
             }
 
-            mCurTransaction.add(container.getId(), fragment, makeFragmentName(container.getId(), itemId));
+            enqueue(OP_ADD, fragment).setTarget(container.getId(), makeFragmentName(container.getId(), itemId));
+            mFragments.put(itemId, fragment);
         }
 
         // TODO check what these properties are doing
         fragment.setMenuVisibility(false);
         fragment.setUserVisibleHint(false);
 
+        mActivePages.put(fragment, new ActivePage(itemId, position));
         return fragment;
     }
 
     @Override
     public void destroyItem(ViewGroup container, int position, Object object) {
-        if (mCurTransaction == null) {
-            mCurTransaction = mFragmentManager.beginTransaction();
+        final Fragment fragment = (Fragment) object;
+        final ActivePage page = mActivePages.remove(fragment);
+
+        if (page == null) {
+            Log.w(TAG, "Destroying a page that wasn't instantiated by this adapter: f=" + fragment);
+
+            enqueue(OP_REMOVE, fragment);
+            return;
         }
 
-        if (DEBUG) {
-            Log.v(TAG, "Detaching item #" + getItemId(position) + ": f=" + object +
-                       " v=" + ((Fragment)object).getView());
+        final long itemId = page.itemId;
+
+        if (page.removed || page.changed) {
+            // Item no longer exists (or its data has changed), drop the fragment along with its state
+            dropPage(itemId, fragment);
+        } else if (distanceOf(position) <= mHiddenDistance && mHiddenCount > 0) {
+            if (DEBUG) {
+                Log.v(TAG, "Hiding item #" + itemId + ": f=" + fragment + " v=" + fragment.getView());
+            }
+
+            enqueue(OP_HIDE, fragment);
+            mHiddenPages.put(itemId, new RetainedPage(position, fragment));
+
+            // Demote the oldest hidden pages
+            final Iterator<Map.Entry<Long, RetainedPage>> it = mHiddenPages.entrySet().iterator();
+
+            while (mHiddenPages.size() > mHiddenCount && it.hasNext()) {
+                final Map.Entry<Long, RetainedPage> entry = it.next();
+                it.remove();
+
+                removePage(entry.getKey(), entry.getValue().position, entry.getValue().fragment);
+            }
+        } else {
+            removePage(itemId, position, fragment);
+        }
+    }
+
+    @Override
+    public void setPrimaryItem(ViewGroup container, int position, Object object) {
+        final int columns = container instanceof ColumnPager ? ((ColumnPager) container).getColumns() : 1;
+
+        if (mPrimaryPosition == position && mPrimaryColumns == columns) {
+            return;
         }
 
-        mCurTransaction.detach((Fragment)object);
+        mPrimaryPosition = position;
+        mPrimaryColumns = columns;
+
+        // Demote hidden pages that are now too far from the visible columns
+        final Iterator<Map.Entry<Long, RetainedPage>> hidden = mHiddenPages.entrySet().iterator();
+
+        while (hidden.hasNext()) {
+            final Map.Entry<Long, RetainedPage> entry = hidden.next();
+            final RetainedPage page = entry.getValue();
+
+            if (distanceOf(page.position) <= mHiddenDistance) {
+                continue;
+            }
+
+            hidden.remove();
+
+            removePage(entry.getKey(), page.position, page.fragment);
+        }
+
+        // Drop saved states that are now too far from the visible columns
+        final Iterator<RetainedPage> saved = mSavedPages.values().iterator();
+
+        while (saved.hasNext()) {
+            if (distanceOf(saved.next().position) > mSavedStateDistance) {
+                saved.remove();
+            }
+        }
     }
 
     @Override
     public void finishUpdate(ViewGroup container) {
-        if (mCurTransaction != null) {
-            mCurTransaction.commitAllowingStateLoss();
-            mCurTransaction = null;
+        if (mPendingOps.isEmpty()) {
+            return;
+        }
+
+        if (!(container instanceof ColumnPager) || !((ColumnPager) container).isPopulating()) {
+            // Page views are required now (e.g. to measure a prefetched page)
+            executePendingUpdates();
+            return;
+        }
+
+        if (mCommitScheduled) {
+            return;
+        }
+
+        PagerTrace.beginSection(PagerTrace.FINISH_UPDATE);
+
+        // Commit once per frame, before the next traversal
+        mCommitScheduled = true;
+        ViewCompat.postOnAnimation(container, mCommitRunnable);
+
+        PagerTrace.endSection();
+    }
+
+    /**
+     * Commit any pending fragment operations immediately, instead of waiting for the next frame.
+     */
+    public void executePendingUpdates() {
+        if (mPendingOps.isEmpty()) {
+            return;
+        }
+
+        PagerTrace.beginSection(PagerTrace.COMMIT);
+
+        final FragmentTransaction transaction = mFragmentManager.beginTransaction();
+
+        for (int i = 0; i < mPendingOps.size(); i++) {
+            final PendingOp op = mPendingOps.get(i);
 
-            mFragmentManager.executePendingTransactions();
+            switch (op.type) {
+                case OP_ADD:
+                    transaction.add(op.containerId, op.fragment, op.tag);
+                    break;
+                case OP_REMOVE:
+                    transaction.remove(op.fragment);
+                    break;
+                case OP_ATTACH:
+                    transaction.attach(op.fragment);
+                    break;
+                case OP_HIDE:
+                    transaction.hide(op.fragment);
+                    break;
+                case OP_SHOW:
+                    transaction.show(op.fragment);
+                    break;
+            }
+        }
+
+        if (DEBUG) {
+            Log.v(TAG, "Committing " + mPendingOps.size() + " fragment operation(s)");
         }
+
+        mPendingOps.clear();
+        mPendingFragmentOps.clear();
+
+        transaction.commitAllowingStateLoss();
+        mFragmentManager.executePendingTransactions();
+
+        PagerTrace.endSection();
+    }
+
+    @Override
+    public void restoreState(Parcelable state, ClassLoader loader) {
+        // Fragments may have been restored, rebuild the registry on next use
+        mFragmentsValid = false;
     }
 
     @Override
@@ -97,12 +345,423 @@ public abstract class FragmentPagerAdapter extends BasePagerAdapter {
         return ((Fragment) object).getView() == view;
     }
 
+    @Override
+    protected void onItemRangeInserted(int positionStart, int itemCount) {
+        shiftPages(mActivePages.values(), positionStart, Integer.MAX_VALUE, itemCount);
+        shiftPages(mHiddenPages.values(), positionStart, Integer.MAX_VALUE, itemCount);
+        shiftPages(mSavedPages.values(), positionStart, Integer.MAX_VALUE, itemCount);
+    }
+
+    @Override
+    protected void onItemRangeRemoved(int positionStart, int itemCount) {
+        final int positionEnd = positionStart + itemCount;
+
+        // Active pages of removed items are dropped when the pager destroys them
+        for (ActivePage page : mActivePages.values()) {
+            if (!page.removed && page.position >= positionStart && page.position < positionEnd) {
+                page.removed = true;
+            }
+        }
+
+        // Drop pages of removed items
+        dropRetainedPages(positionStart, positionEnd);
+
+        shiftActivePages(positionEnd, Integer.MAX_VALUE, -itemCount);
+        shiftPages(mHiddenPages.values(), positionEnd, Integer.MAX_VALUE, -itemCount);
+        shiftPages(mSavedPages.values(), positionEnd, Integer.MAX_VALUE, -itemCount);
+    }
+
+    @Override
+    protected void onItemRangeChanged(int positionStart, int itemCount) {
+        final int positionEnd = positionStart + itemCount;
+
+        // Active pages of changed items are dropped when the pager destroys them
+        for (ActivePage page : mActivePages.values()) {
+            if (!page.removed && page.position >= positionStart && page.position < positionEnd) {
+                page.changed = true;
+            }
+        }
+
+        // Drop retained pages of changed items, they display the previous data
+        dropRetainedPages(positionStart, positionEnd);
+    }
+
+    @Override
+    protected void onItemMoved(int fromPosition, int toPosition) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+
+        final ActivePage active = findActivePage(fromPosition);
+        final RetainedPage hidden = findRetainedPage(mHiddenPages, fromPosition);
+        final RetainedPage saved = findRetainedPage(mSavedPages, fromPosition);
+
+        // Shift pages between the two positions
+        if (fromPosition < toPosition) {
+            shiftActivePages(fromPosition + 1, toPosition, -1);
+            shiftPages(mHiddenPages.values(), fromPosition + 1, toPosition, -1);
+            shiftPages(mSavedPages.values(), fromPosition + 1, toPosition, -1);
+        } else {
+            shiftActivePages(toPosition, fromPosition - 1, 1);
+            shiftPages(mHiddenPages.values(), toPosition, fromPosition - 1, 1);
+            shiftPages(mSavedPages.values(), toPosition, fromPosition - 1, 1);
+        }
+
+        if (active != null) {
+            active.position = toPosition;
+        }
+
+        if (hidden != null) {
+            hidden.position = toPosition;
+        }
+
+        if (saved != null) {
+            saved.position = toPosition;
+        }
+    }
+
     // endregion
 
     // region Private methods
 
+    /**
+     * @return Distance of `position` from the visible columns (0 if it is visible)
+     */
+    private int distanceOf(int position) {
+        if (position < mPrimaryPosition) {
+            return mPrimaryPosition - position;
+        }
+
+        return Math.max(0, position - (mPrimaryPosition + mPrimaryColumns - 1));
+    }
+
+    /**
+     * Shift the positions of pages between `startPosition` and `endPosition` (inclusive)
+     * by `delta`.
+     */
+    private static void shiftPages(Collection<? extends Page> pages, int startPosition, int endPosition, int delta) {
+        for (Page page : pages) {
+            if (page.position >= startPosition && page.position <= endPosition) {
+                page.position += delta;
+            }
+        }
+    }
+
+    /**
+     * Shift the positions of active pages, pages of removed items keep their position.
+     */
+    private void shiftActivePages(int startPosition, int endPosition, int delta) {
+        for (ActivePage page : mActivePages.values()) {
+            if (!page.removed && page.position >= startPosition && page.position <= endPosition) {
+                page.position += delta;
+            }
+        }
+    }
+
+    /**
+     * Drop hidden pages and saved states between `positionStart` (inclusive) and `positionEnd`
+     * (exclusive).
+     */
+    private void dropRetainedPages(int positionStart, int positionEnd) {
+        final Iterator<Map.Entry<Long, RetainedPage>> hidden = mHiddenPages.entrySet().iterator();
+
+        while (hidden.hasNext()) {
+            final Map.Entry<Long, RetainedPage> entry = hidden.next();
+            final RetainedPage page = entry.getValue();
+
+            if (page.position < positionStart || page.position >= positionEnd) {
+                continue;
+            }
+
+            hidden.remove();
+
+            dropPage(entry.getKey(), page.fragment);
+        }
+
+        final Iterator<RetainedPage> saved = mSavedPages.values().iterator();
+
+        while (saved.hasNext()) {
+            final RetainedPage page = saved.next();
+
+            if (page.position >= positionStart && page.position < positionEnd) {
+                saved.remove();
+            }
+        }
+    }
+
+    private ActivePage findActivePage(int position) {
+        for (ActivePage page : mActivePages.values()) {
+            if (!page.removed && page.position == position) {
+                return page;
+            }
+        }
+
+        return null;
+    }
+
+    private static RetainedPage findRetainedPage(Map<Long, RetainedPage> pages, int position) {
+        for (RetainedPage page : pages.values()) {
+            if (page.position == position) {
+                return page;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Remove `fragment`, keeping its saved state if it is within the saved state tier.
+     */
+    private void removePage(long itemId, int position, Fragment fragment) {
+        if (isPendingAdd(fragment)) {
+            // Fragment hasn't been added yet, cancel all of its operations
+            if (DEBUG) {
+                Log.v(TAG, "Cancelling add of item #" + itemId + ": f=" + fragment);
+            }
+
+            while (mPendingFragmentOps.containsKey(fragment)) {
+                cancel(mPendingFragmentOps.get(fragment));
+            }
+
+            unregisterFragment(itemId, fragment);
+            return;
+        }
+
+        if (distanceOf(position) <= mSavedStateDistance && mSavedStateCount > 0) {
+            final Fragment.SavedState state = mFragmentManager.saveFragmentInstanceState(fragment);
+
+            if (state != null) {
+                mSavedPages.put(itemId, new RetainedPage(position, state));
+
+                // Drop least recently used states
+                final Iterator<Long> it = mSavedPages.keySet().iterator();
+
+                while (mSavedPages.size() > mSavedStateCount && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            }
+        }
+
+        if (DEBUG) {
+            Log.v(TAG, "Removing item #" + itemId + ": f=" + fragment + " saved=" + mSavedPages.containsKey(itemId));
+        }
+
+        enqueue(OP_REMOVE, fragment);
+        unregisterFragment(itemId, fragment);
+    }
+
+    /**
+     * Remove `fragment` along with any saved state, the item no longer exists.
+     */
+    private void dropPage(long itemId, Fragment fragment) {
+        mSavedPages.remove(itemId);
+
+        if (isPendingAdd(fragment)) {
+            // Fragment hasn't been added yet, cancel all of its operations
+            while (mPendingFragmentOps.containsKey(fragment)) {
+                cancel(mPendingFragmentOps.get(fragment));
+            }
+        } else {
+            enqueue(OP_REMOVE, fragment);
+        }
+
+        if (DEBUG) {
+            Log.v(TAG, "Dropping item #" + itemId + ": f=" + fragment);
+        }
+
+        unregisterFragment(itemId, fragment);
+    }
+
+    /**
+     * Remove `fragment` from the registry, if it is still registered for `itemId`.
+     */
+    private void unregisterFragment(long itemId, Fragment fragment) {
+        if (mFragments.get(itemId) == fragment) {
+            mFragments.remove(itemId);
+        }
+    }
+
+    /**
+     * Queue an operation for `fragment`, merging it with the fragment's pending operation.
+     *
+     * @return Queued operation, or null if the operation cancelled the pending operation
+     */
+    private PendingOp enqueue(int type, Fragment fragment) {
+        final PendingOp pending = mPendingFragmentOps.get(fragment);
+
+        if (pending != null) {
+            if ((pending.type == OP_HIDE && type == OP_SHOW) || (pending.type == OP_SHOW && type == OP_HIDE)) {
+                // Operations cancel each other out
+                cancel(pending);
+                return null;
+            }
+
+            if (type == OP_REMOVE && pending.type != OP_ADD) {
+                // Fragment is being removed, earlier operations are redundant
+                cancel(pending);
+            }
+        }
+
+        final PendingOp op = new PendingOp(type, fragment);
+
+        mPendingOps.add(op);
+        mPendingFragmentOps.put(fragment, op);
+        return op;
+    }
+
+    private boolean isPendingAdd(Fragment fragment) {
+        if (!mPendingFragmentOps.containsKey(fragment)) {
+            return false;
+        }
+
+        for (int i = 0; i < mPendingOps.size(); i++) {
+            final PendingOp op = mPendingOps.get(i);
+
+            if (op.fragment == fragment && op.type == OP_ADD) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void cancel(PendingOp op) {
+        mPendingOps.remove(op);
+
+        if (mPendingFragmentOps.get(op.fragment) != op) {
+            return;
+        }
+
+        // Restore the fragment's previous pending operation (if any)
+        mPendingFragmentOps.remove(op.fragment);
+
+        for (int i = mPendingOps.size() - 1; i >= 0; i--) {
+            if (mPendingOps.get(i).fragment == op.fragment) {
+                mPendingFragmentOps.put(op.fragment, mPendingOps.get(i));
+                break;
+            }
+        }
+    }
+
+    /**
+     * Find the fragment for `itemId`, the registry is rebuilt from the fragment manager the
+     * first time it is used with `container` (e.g. after the fragments have been restored).
+     */
+    private Fragment findFragment(ViewGroup container, long itemId) {
+        if (!mFragmentsValid || mFragmentsContainerId != container.getId()) {
+            rebuildFragments(container.getId());
+        }
+
+        return mFragments.get(itemId);
+    }
+
+    private void rebuildFragments(int containerId) {
+        mFragments.clear();
+        mFragmentsContainerId = containerId;
+        mFragmentsValid = true;
+
+        final List<Fragment> fragments = mFragmentManager.getFragments();
+
+        if (fragments == null) {
+            return;
+        }
+
+        // Match fragments that were tagged by `makeFragmentName`
+        final String prefix = TAG_PREFIX + containerId + ":";
+
+        for (int i = 0; i < fragments.size(); i++) {
+            final Fragment fragment = fragments.get(i);
+
+            if (fragment == null || !(fragment instanceof PagerFragment)) {
+                continue;
+            }
+
+            final String tag = fragment.getTag();
+
+            if (tag == null || !tag.startsWith(prefix)) {
+                continue;
+            }
+
+            try {
+                mFragments.put(Long.parseLong(tag.substring(prefix.length())), fragment);
+            } catch (NumberFormatException e) {
+                Log.w(TAG, "Unable to parse item ID from fragment tag: " + tag);
+            }
+        }
+
+        if (DEBUG) {
+            Log.v(TAG, "Rebuilt fragment registry with " + mFragments.size() + " fragment(s)");
+        }
+    }
+
     private static String makeFragmentName(int viewId, long id) {
-        return "android:switcher:" + viewId + ":" + id;
+        return TAG_PREFIX + viewId + ":" + id;
+    }
+
+    /**
+     * @return true if `fragment` is registered for any item ID
+     */
+    boolean isRegistered(Fragment fragment) {
+        return mFragments.indexOfValue(fragment) >= 0;
+    }
+
+    // endregion
+
+    // region Classes
+
+    private static class PendingOp {
+        final int type;
+        final Fragment fragment;
+
+        int containerId;
+        String tag;
+
+        PendingOp(int type, Fragment fragment) {
+            this.type = type;
+            this.fragment = fragment;
+        }
+
+        void setTarget(int containerId, String tag) {
+            this.containerId = containerId;
+            this.tag = tag;
+        }
+    }
+
+    private static abstract class Page {
+        int position;
+    }
+
+    private static class ActivePage extends Page {
+        final long itemId;
+
+        // Item has been removed from the adapter
+        boolean removed;
+
+        // Item data has changed, the fragment displays the previous data
+        boolean changed;
+
+        ActivePage(long itemId, int position) {
+            this.itemId = itemId;
+            this.position = position;
+        }
+    }
+
+    private static class RetainedPage extends Page {
+        final Fragment fragment;
+        final Fragment.SavedState state;
+
+        RetainedPage(int position, Fragment fragment) {
+            this.position = position;
+            this.fragment = fragment;
+            this.state = null;
+        }
+
+        RetainedPage(int position, Fragment.SavedState state) {
+            this.position = position;
+            this.fragment = null;
+            this.state = state;
+        }
     }
 
     // endregion
@@ -43,10 +43,26 @@ public interface PagerAdapter {
      */
     void destroyItem(ViewGroup container, int position, Object object);
 
+    /**
+     * Called to inform the adapter of which item is currently considered to
+     * be the "primary", that is the first column shown to the user.
+     *
+     * @param container The containing View which is displaying this adapter's
+     * page views.
+     * @param position The page position that is now the primary.
+     * @param object The same object that was returned by
+     * {@link #instantiateItem(ViewGroup, int)}, or null if the page hasn't been created.
+     */
+    void setPrimaryItem(ViewGroup container, int position, Object object);
+
     /**
      * Called when the a change in the shown pages has been completed.  At this
      * point you must ensure that all of the pages have actually been added or
      * removed from the container as appropriate.
+     *
+     * <p>While {@link net.dgardiner.columnpager.ColumnPager#isPopulating()} is true, changes may
+     * instead be deferred until the next animation frame (before the next traversal).</p>
+     *
      * @param container The containing View which is displaying this adapter's
      * page views.
      */
@@ -97,6 +113,30 @@ public interface PagerAdapter {
      */
     int getItemPosition(Object object);
 
+    /**
+     * Returns true if {@link #getPageWidthFraction(int)} may return values other than 1.
+     *
+     * <p>{@link BasePagerAdapter} returns false, every page is one column wide and page widths
+     * aren't queried. Adapters that implement this interface directly must implement this
+     * method and {@link #getPageWidthFraction(int)} (return false and 1 to keep single column
+     * pages).</p>
+     *
+     * @return true if pages have variable widths
+     */
+    boolean hasVariableWidths();
+
+    /**
+     * Returns the width of the page at `position`, as a fraction of the column width. Only
+     * called if {@link #hasVariableWidths()} returns true.
+     *
+     * <p>{@link BasePagerAdapter} returns 1 (a single column). Pages that span multiple
+     * columns (e.g. a detail pane next to list columns) can return larger values.</p>
+     *
+     * @param position The position of the page
+     * @return Width of the page, relative to the column width
+     */
+    float getPageWidthFraction(int position);
+
     /**
      * Register an observer to receive callbacks related to the adapter's data changing.
      *
@@ -0,0 +1,61 @@
+package net.dgardiner.columnpager.adapters;
+
+import android.database.DataSetObserver;
+
+/**
+ * Observer that receives range-based change notifications from a {@link BasePagerAdapter}.
+ *
+ * <p>The default implementations fall back to {@link #onChanged()}.</p>
+ */
+public abstract class PagerAdapterObserver extends DataSetObserver {
+    /**
+     * Called before a batch of range changes is dispatched, the observer may defer
+     * any work until {@link #onUpdatesFinished()}.
+     */
+    public void onUpdatesStarted() {}
+
+    /**
+     * Called after a batch of range changes has been dispatched.
+     */
+    public void onUpdatesFinished() {}
+
+    /**
+     * Called when `itemCount` items have been inserted at `positionStart`.
+     *
+     * @param positionStart Position of the first inserted item
+     * @param itemCount Number of items inserted
+     */
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        onChanged();
+    }
+
+    /**
+     * Called when `itemCount` items have been removed, starting at `positionStart`.
+     *
+     * @param positionStart Position of the first removed item (prior to removal)
+     * @param itemCount Number of items removed
+     */
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        onChanged();
+    }
+
+    /**
+     * Called when the contents of `itemCount` items, starting at `positionStart`, have changed.
+     *
+     * @param positionStart Position of the first changed item
+     * @param itemCount Number of items changed
+     */
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        onChanged();
+    }
+
+    /**
+     * Called when an item has been moved from `fromPosition` to `toPosition`.
+     *
+     * @param fromPosition Previous position of the item
+     * @param toPosition New position of the item
+     */
+    public void onItemMoved(int fromPosition, int toPosition) {
+        onChanged();
+    }
+}
@@ -0,0 +1,264 @@
+package net.dgardiner.columnpager.adapters;
+
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+
+/**
+ * Adapter that displays plain views as pages, without fragments.
+ *
+ * <p>Pages are represented by {@link ViewHolder}s. When a page leaves the pager window its
+ * holder is placed in a scrap pool (keyed by view type), and is rebound to the next page of the
+ * same type instead of inflating a new view.</p>
+ *
+ * @param <VH> View holder type
+ */
+public abstract class RecyclingPagerAdapter<VH extends RecyclingPagerAdapter.ViewHolder> extends BasePagerAdapter {
+    private static final String TAG = "RecyclingPagerAdapter";
+    private static final boolean DEBUG = false;
+
+    private static final int DEFAULT_MAX_SCRAP = 4;
+
+    private final SparseArray<ArrayList<VH>> mScrap = new SparseArray<ArrayList<VH>>();
+    private int mMaxScrap = DEFAULT_MAX_SCRAP;
+
+    // Holders displaying a page, positions are shifted as items are inserted, removed and moved
+    private final ArrayList<VH> mBoundHolders = new ArrayList<VH>();
+
+    @Override
+    public abstract int getCount();
+
+    /**
+     * Create a new view holder for pages of `viewType`.
+     *
+     * @param parent The pager the view will be added to
+     * @param viewType View type of the page
+     * @return New view holder
+     */
+    public abstract VH onCreateViewHolder(ViewGroup parent, int viewType);
+
+    /**
+     * Display the page at `position` in `holder`. The holder may have previously displayed
+     * another page of the same view type.
+     *
+     * @param holder View holder to bind
+     * @param position Position of the page
+     */
+    public abstract void onBindViewHolder(VH holder, int position);
+
+    /**
+     * Called when `holder` has been removed from the pager, before it is placed in the scrap pool.
+     * Override to release any resources held by the page.
+     *
+     * @param holder View holder being recycled
+     */
+    public void onViewRecycled(VH holder) {}
+
+    /**
+     * Return the view type of the page at `position`. Holders are only reused for pages of
+     * the same view type.
+     *
+     * @param position Position of the page
+     * @return View type of the page
+     */
+    public int getItemViewType(int position) {
+        return 0;
+    }
+
+    /**
+     * Set the maximum number of scrap holders kept for each view type.
+     *
+     * @param maxScrap Maximum number of holders
+     */
+    public void setMaxScrap(int maxScrap) {
+        mMaxScrap = maxScrap;
+
+        // Trim existing scrap
+        for (int i = 0; i < mScrap.size(); i++) {
+            final ArrayList<VH> scrap = mScrap.valueAt(i);
+
+            while (scrap.size() > maxScrap) {
+                scrap.remove(scrap.size() - 1);
+            }
+        }
+    }
+
+    // region BasePagerAdapter
+
+    @Override
+    public Object instantiateItem(ViewGroup container, int position) {
+        final int viewType = getItemViewType(position);
+
+        // Retrieve holder from the scrap pool, or create a new one
+        VH holder = acquireScrap(viewType);
+
+        if (holder == null) {
+            holder = onCreateViewHolder(container, viewType);
+            holder.mViewType = viewType;
+
+            if (DEBUG) {
+                Log.v(TAG, "Created holder for item #" + position + ": " + holder);
+            }
+        } else if (DEBUG) {
+            Log.v(TAG, "Rebinding holder for item #" + position + ": " + holder);
+        }
+
+        holder.mPosition = position;
+        onBindViewHolder(holder, position);
+
+        mBoundHolders.add(holder);
+
+        container.addView(holder.itemView);
+        return holder;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void destroyItem(ViewGroup container, int position, Object object) {
+        final VH holder = (VH) object;
+
+        container.removeView(holder.itemView);
+        mBoundHolders.remove(holder);
+
+        onViewRecycled(holder);
+        holder.mPosition = ViewHolder.NO_POSITION;
+
+        releaseScrap(holder);
+    }
+
+    @Override
+    public boolean isViewFromObject(View view, Object object) {
+        return ((ViewHolder) object).itemView == view;
+    }
+
+    @Override
+    protected void onItemRangeInserted(int positionStart, int itemCount) {
+        shiftHolders(positionStart, Integer.MAX_VALUE, itemCount);
+    }
+
+    @Override
+    protected void onItemRangeRemoved(int positionStart, int itemCount) {
+        final int positionEnd = positionStart + itemCount;
+
+        // Holders of removed items no longer have a position (until the pager destroys them)
+        for (int i = 0; i < mBoundHolders.size(); i++) {
+            final VH holder = mBoundHolders.get(i);
+
+            if (holder.mPosition >= positionStart && holder.mPosition < positionEnd) {
+                holder.mPosition = ViewHolder.NO_POSITION;
+            }
+        }
+
+        shiftHolders(positionEnd, Integer.MAX_VALUE, -itemCount);
+    }
+
+    @Override
+    protected void onItemMoved(int fromPosition, int toPosition) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+
+        VH moved = null;
+
+        for (int i = 0; i < mBoundHolders.size(); i++) {
+            if (mBoundHolders.get(i).mPosition == fromPosition) {
+                moved = mBoundHolders.get(i);
+                break;
+            }
+        }
+
+        // Shift holders between the two positions
+        if (fromPosition < toPosition) {
+            shiftHolders(fromPosition + 1, toPosition, -1);
+        } else {
+            shiftHolders(toPosition, fromPosition - 1, 1);
+        }
+
+        if (moved != null) {
+            moved.mPosition = toPosition;
+        }
+    }
+
+    // endregion
+
+    // region Private methods
+
+    /**
+     * Shift the positions of bound holders between `startPosition` and `endPosition`
+     * (inclusive) by `delta`.
+     */
+    private void shiftHolders(int startPosition, int endPosition, int delta) {
+        for (int i = 0; i < mBoundHolders.size(); i++) {
+            final VH holder = mBoundHolders.get(i);
+
+            if (holder.mPosition >= startPosition && holder.mPosition <= endPosition) {
+                holder.mPosition += delta;
+            }
+        }
+    }
+
+    private VH acquireScrap(int viewType) {
+        final ArrayList<VH> scrap = mScrap.get(viewType);
+
+        if (scrap == null || scrap.isEmpty()) {
+            return null;
+        }
+
+        return scrap.remove(scrap.size() - 1);
+    }
+
+    private void releaseScrap(VH holder) {
+        ArrayList<VH> scrap = mScrap.get(holder.mViewType);
+
+        if (scrap == null) {
+            scrap = new ArrayList<VH>(mMaxScrap);
+            mScrap.put(holder.mViewType, scrap);
+        }
+
+        if (scrap.size() < mMaxScrap) {
+            scrap.add(holder);
+        }
+    }
+
+    // endregion
+
+    /**
+     * Describes a page view and its position within the adapter.
+     */
+    public static abstract class ViewHolder {
+        public static final int NO_POSITION = -1;
+
+        public final View itemView;
+
+        int mViewType;
+        int mPosition = NO_POSITION;
+
+        public ViewHolder(View itemView) {
+            if (itemView == null) {
+                throw new IllegalArgumentException("itemView may not be null");
+            }
+
+            this.itemView = itemView;
+        }
+
+        /**
+         * @return Position of the page displayed by this holder, or {@link #NO_POSITION} if the
+         *         holder is in the scrap pool (or its item has been removed)
+         */
+        public int getPosition() {
+            return mPosition;
+        }
+
+        public int getItemViewType() {
+            return mViewType;
+        }
+
+        @Override
+        public String toString() {
+            return "<ViewHolder position: " + mPosition + ", viewType: " + mViewType + ", itemView: " + itemView + ">";
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package net.dgardiner.columnpager.util;
+
+import android.os.Build;
+import android.support.v4.os.TraceCompat;
+import android.view.animation.AnimationUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Systrace sections and counters for pager hot paths.
+ *
+ * <p>Sections are forwarded to {@link TraceCompat}, which is a no-op before API 18 and a
+ * native enabled check afterwards. Counters aren't part of the public API before API 29 (and
+ * the library compiles against an earlier SDK), so they are resolved by reflection once. The
+ * enabled state is checked once per frame, counters return before any reflective call while
+ * tracing is disabled. Call arguments are reused, so small counter values don't allocate.</p>
+ */
+public final class PagerTrace {
+    public static final String POPULATE = "ColumnPager:populate";
+    public static final String CALCULATE_PAGE_OFFSETS = "ColumnPager:calculatePageOffsets";
+    public static final String DATA_SET_CHANGED = "ColumnPager:dataSetChanged";
+    public static final String CREATE_PAGER_ITEM = "ColumnPager:createPagerItem";
+    public static final String MEASURE = "ColumnPager:onMeasure";
+    public static final String LAYOUT = "ColumnPager:onLayout";
+    public static final String COMPUTE_SCROLL = "ColumnPager:computeScroll";
+    public static final String FINISH_UPDATE = "FragmentPagerAdapter:finishUpdate";
+    public static final String COMMIT = "FragmentPagerAdapter:commit";
+
+    public static final String COUNTER_WINDOW_SIZE = "ColumnPager:windowSize";
+    public static final String COUNTER_CHILD_COUNT = "ColumnPager:childCount";
+
+    // Trace.TRACE_TAG_VIEW
+    private static final long TRACE_TAG_VIEW = 1L << 3;
+
+    private static boolean sCounterMethodsResolved;
+
+    private static Method sIsEnabledMethod;
+    private static Method sSetCounterMethod;
+
+    // Reused call arguments
+    private static Object[] sIsEnabledArgs;
+    private static Object[] sSetCounterArgs;
+
+    // Enabled state, cached for the frame at `sEnabledFrameMillis`
+    private static boolean sEnabled;
+    private static long sEnabledFrameMillis = -1;
+
+    private PagerTrace() {
+
+    }
+
+    //
+    // Public methods
+    //
+
+    public static void beginSection(String name) {
+        TraceCompat.beginSection(name);
+    }
+
+    public static void endSection() {
+        TraceCompat.endSection();
+    }
+
+    /**
+     * Set the value of the counter `name`, ignored if tracing isn't enabled.
+     *
+     * @param name Counter name
+     * @param value Counter value
+     */
+    public static void setCounter(String name, int value) {
+        if (Build.VERSION.SDK_INT < 18 || !isCounterEnabled()) {
+            return;
+        }
+
+        try {
+            if (Build.VERSION.SDK_INT >= 29) {
+                sSetCounterArgs[0] = name;
+                sSetCounterArgs[1] = (long) value;
+            } else {
+                sSetCounterArgs[1] = name;
+                sSetCounterArgs[2] = value;
+            }
+
+            sSetCounterMethod.invoke(null, sSetCounterArgs);
+        } catch (Exception e) {
+            disableCounters();
+        }
+    }
+
+    //
+    // Private methods
+    //
+
+    /**
+     * @return true if tracing is enabled, checked at most once per frame
+     */
+    private static boolean isCounterEnabled() {
+        final long frameMillis = AnimationUtils.currentAnimationTimeMillis();
+
+        if (frameMillis == sEnabledFrameMillis) {
+            return sEnabled;
+        }
+
+        sEnabledFrameMillis = frameMillis;
+
+        if (!sCounterMethodsResolved) {
+            resolveCounterMethods();
+        }
+
+        if (sIsEnabledMethod == null) {
+            sEnabled = false;
+            return false;
+        }
+
+        try {
+            sEnabled = (Boolean) sIsEnabledMethod.invoke(null, sIsEnabledArgs);
+        } catch (Exception e) {
+            disableCounters();
+        }
+
+        return sEnabled;
+    }
+
+    private static void resolveCounterMethods() {
+        sCounterMethodsResolved = true;
+
+        try {
+            final Class<?> trace = Class.forName("android.os.Trace");
+
+            if (Build.VERSION.SDK_INT >= 29) {
+                sIsEnabledMethod = trace.getMethod("isEnabled");
+                sSetCounterMethod = trace.getMethod("setCounter", String.class, long.class);
+
+                sIsEnabledArgs = new Object[0];
+                sSetCounterArgs = new Object[2];
+            } else {
+                sIsEnabledMethod = trace.getMethod("isTagEnabled", long.class);
+                sSetCounterMethod = trace.getMethod("traceCounter", long.class, String.class, int.class);
+
+                sIsEnabledArgs = new Object[] {TRACE_TAG_VIEW};
+                sSetCounterArgs = new Object[] {TRACE_TAG_VIEW, null, null};
+            }
+        } catch (Exception e) {
+            disableCounters();
+        }
+    }
+
+    /**
+     * Counters are unavailable, stop trying.
+     */
+    private static void disableCounters() {
+        sIsEnabledMethod = null;
+        sSetCounterMethod = null;
+        sEnabled = false;
+    }
+}
@@ -0,0 +1,167 @@
+package net.dgardiner.columnpager;
+
+import android.os.SystemClock;
+import android.support.v4.app.FragmentActivity;
+import net.dgardiner.columnpager.adapters.TestFragmentAdapter;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ColumnPagerPopulateTest {
+    private static final int FRAME_MILLIS = 16;
+    private static final int MAX_FRAMES = 200;
+
+    private static final int JUMPS = 200;
+
+    private ColumnPager pager;
+    private TestFragmentAdapter adapter;
+
+    @Before
+    public void setUp() {
+        final FragmentActivity activity = Robolectric.setupActivity(FragmentActivity.class);
+
+        pager = PagerTestUtils.createPager(activity);
+        adapter = new TestFragmentAdapter(activity.getSupportFragmentManager(), 20);
+
+        pager.setAdapter(adapter);
+        PagerTestUtils.layout(pager);
+
+        adapter.executePendingUpdates();
+    }
+
+    @Test
+    public void smoothScrollPopulatesCrossedPages() {
+        pager.setCurrentItem(10, true);
+
+        // Target window is populated before the scroll starts
+        assertActive(9, 11);
+
+        int frames = 0;
+
+        while (pager.getScrollX() != 10 * PagerTestUtils.WIDTH && frames++ < MAX_FRAMES) {
+            SystemClock.setCurrentTimeMillis(SystemClock.uptimeMillis() + FRAME_MILLIS);
+            pager.computeScroll();
+
+            // Pages are created as they scroll into view
+            final int scrollX = pager.getScrollX();
+
+            assertActive(
+                scrollX / PagerTestUtils.WIDTH,
+                (scrollX + PagerTestUtils.WIDTH - 1) / PagerTestUtils.WIDTH
+            );
+        }
+
+        assertEquals(10 * PagerTestUtils.WIDTH, pager.getScrollX());
+        assertEquals(10, pager.getCurrentItem());
+    }
+
+    @Test
+    public void stepChurnIsBoundedByColumns() {
+        for (int columns : new int[] { 1, 3 }) {
+            setColumns(columns);
+
+            // Step forwards over every position, then back again
+            for (int position = 1; position < adapter.getCount(); position++) {
+                step(position, columns);
+            }
+
+            for (int position = adapter.getCount() - 2; position >= 0; position--) {
+                step(position, columns);
+            }
+        }
+    }
+
+    @Test
+    public void jumpChurnIsBoundedByDistance() {
+        final Random random = new Random(42);
+
+        for (int columns : new int[] { 1, 3 }) {
+            setColumns(columns);
+
+            final int windowSize = columns + pager.getOffscreenPageLimit() * 2;
+
+            for (int i = 0; i < JUMPS; i++) {
+                final int from = pager.getCurrentItem();
+                final int to = random.nextInt(adapter.getCount());
+
+                adapter.resetCounts();
+                pager.setCurrentItem(to, false);
+
+                // Only positions the window has moved over enter and leave it
+                assertChurn("jump " + from + " -> " + to, Math.min(windowSize, Math.abs(to - from)));
+            }
+        }
+    }
+
+    @Test
+    public void dataSetChangedChurnIsBoundedByInvalidatedItems() {
+        // Window is 9..11
+        pager.setCurrentItem(10, false);
+
+        adapter.resetCounts();
+        adapter.notifyDataSetChanged();
+
+        assertChurn("unchanged data set", 0);
+
+        // Invalidate the current item, and an item outside of the window
+        adapter.invalidItemIds.add(adapter.getItemId(10));
+        adapter.invalidItemIds.add(adapter.getItemId(15));
+
+        adapter.resetCounts();
+        adapter.notifyDataSetChanged();
+
+        assertChurn("invalidated items", 1);
+        assertActive(9, 11);
+
+        adapter.invalidItemIds.clear();
+
+        // Change items 11..13, only item 11 is in the window
+        adapter.resetCounts();
+        adapter.notifyItemRangeChanged(11, 3);
+
+        assertChurn("changed range", 1);
+        assertActive(9, 11);
+    }
+
+    private void setColumns(int columns) {
+        pager.setColumns(columns);
+        PagerTestUtils.layout(pager);
+
+        adapter.executePendingUpdates();
+    }
+
+    private void step(int position, int columns) {
+        adapter.resetCounts();
+        pager.setCurrentItem(position, false);
+
+        assertChurn("step to " + position + " (columns: " + columns + ")", columns);
+    }
+
+    private void assertChurn(String message, int bound) {
+        assertTrue(
+            message + ": created " + adapter.getInstantiatedCount() + " pages, expected at most " + bound,
+            adapter.getInstantiatedCount() <= bound
+        );
+
+        assertTrue(
+            message + ": destroyed " + adapter.getDestroyedCount() + " pages, expected at most " + bound,
+            adapter.getDestroyedCount() <= bound
+        );
+    }
+
+    private void assertActive(int first, int last) {
+        for (int position = first; position <= last; position++) {
+            assertTrue("No page for position " + position, adapter.isActive(adapter.getItemId(position)));
+        }
+    }
+}
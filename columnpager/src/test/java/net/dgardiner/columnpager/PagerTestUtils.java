@@ -0,0 +1,35 @@
+package net.dgardiner.columnpager;
+
+import android.support.v4.app.FragmentActivity;
+import android.view.View;
+
+public class PagerTestUtils {
+    public static final int PAGER_ID = 0x7f0e0001;
+
+    public static final int WIDTH = 1080;
+    public static final int HEIGHT = 1920;
+
+    /**
+     * Create a pager as the content view of `activity` (fragments are added to the pager by ID).
+     */
+    public static ColumnPager createPager(FragmentActivity activity) {
+        final ColumnPager pager = new ColumnPager(activity);
+
+        pager.setId(PAGER_ID);
+        activity.setContentView(pager);
+
+        return pager;
+    }
+
+    /**
+     * Run a measure and layout pass over `pager`.
+     */
+    public static void layout(ColumnPager pager) {
+        pager.measure(
+            View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+            View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY)
+        );
+
+        pager.layout(0, 0, WIDTH, HEIGHT);
+    }
+}
@@ -0,0 +1,126 @@
+package net.dgardiner.columnpager.adapters;
+
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentActivity;
+import net.dgardiner.columnpager.BuildConfig;
+import net.dgardiner.columnpager.ColumnPager;
+import net.dgardiner.columnpager.PagerTestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class FragmentPagerAdapterTest {
+    private ColumnPager pager;
+    private TestFragmentAdapter adapter;
+
+    @Before
+    public void setUp() {
+        final FragmentActivity activity = Robolectric.setupActivity(FragmentActivity.class);
+
+        pager = PagerTestUtils.createPager(activity);
+        adapter = new TestFragmentAdapter(activity.getSupportFragmentManager(), 10);
+
+        pager.setAdapter(adapter);
+        PagerTestUtils.layout(pager);
+
+        adapter.executePendingUpdates();
+    }
+
+    @Test
+    public void removedRangeIsDroppedFromRegistry() {
+        // Window is 2..4, pages 0 and 1 are hidden
+        pager.setCurrentItem(3, false);
+        adapter.executePendingUpdates();
+
+        final Fragment hidden = adapter.fragmentOf(101);
+        final Fragment removedFirst = adapter.fragmentOf(102);
+        final Fragment removedLast = adapter.fragmentOf(103);
+        final Fragment kept = adapter.fragmentOf(104);
+
+        assertNotNull(hidden);
+        assertNotNull(removedFirst);
+        assertNotNull(removedLast);
+        assertNotNull(kept);
+
+        // Remove items 2 and 3 (the current item)
+        adapter.itemIds.subList(2, 4).clear();
+        adapter.notifyItemRangeRemoved(2, 2);
+        adapter.executePendingUpdates();
+
+        assertFalse(adapter.isRegistered(removedFirst));
+        assertFalse(adapter.isRegistered(removedLast));
+
+        assertFalse(removedFirst.isAdded());
+        assertFalse(removedLast.isAdded());
+
+        // Pages of the remaining items are kept, the hidden page is shown again
+        assertTrue(adapter.isRegistered(kept));
+        assertTrue(kept.isAdded());
+
+        assertSame(hidden, adapter.fragmentOf(101));
+        assertTrue(adapter.isRegistered(hidden));
+        assertFalse(hidden.isHidden());
+    }
+
+    @Test
+    public void changedRangeRecreatesFragments() {
+        // Window is 2..4, pages 0 and 1 are hidden
+        pager.setCurrentItem(3, false);
+        adapter.executePendingUpdates();
+
+        final Fragment hidden = adapter.fragmentOf(101);
+        final Fragment changed = adapter.fragmentOf(103);
+        final Fragment unchanged = adapter.fragmentOf(104);
+
+        // Change items 1 (hidden) to 3 (the current item)
+        adapter.notifyItemRangeChanged(1, 3);
+        adapter.executePendingUpdates();
+
+        assertNotSame(changed, adapter.fragmentOf(103));
+        assertTrue(adapter.fragmentOf(103).isAdded());
+
+        assertFalse(adapter.isRegistered(changed));
+        assertFalse(changed.isAdded());
+
+        assertSame(unchanged, adapter.fragmentOf(104));
+
+        // Hidden page of a changed item isn't shown again
+        assertFalse(adapter.isRegistered(hidden));
+        assertFalse(hidden.isAdded());
+
+        pager.setCurrentItem(1, false);
+        adapter.executePendingUpdates();
+
+        assertNotSame(hidden, adapter.fragmentOf(101));
+        assertTrue(adapter.fragmentOf(101).isAdded());
+    }
+
+    @Test
+    public void movedPageKeepsItsFragment() {
+        pager.setCurrentItem(3, false);
+        adapter.executePendingUpdates();
+
+        final Fragment moved = adapter.fragmentOf(104);
+
+        // Move item 4 in front of the current item
+        adapter.itemIds.add(3, adapter.itemIds.remove(4));
+        adapter.notifyItemMoved(4, 3);
+        adapter.executePendingUpdates();
+
+        assertSame(moved, adapter.fragmentOf(104));
+        assertTrue(adapter.isRegistered(moved));
+        assertTrue(moved.isAdded());
+        assertFalse(moved.isHidden());
+    }
+}
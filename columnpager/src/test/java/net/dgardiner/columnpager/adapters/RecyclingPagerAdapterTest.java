@@ -0,0 +1,127 @@
+package net.dgardiner.columnpager.adapters;
+
+import android.support.v4.app.FragmentActivity;
+import android.view.View;
+import android.view.ViewGroup;
+import net.dgardiner.columnpager.BuildConfig;
+import net.dgardiner.columnpager.ColumnPager;
+import net.dgardiner.columnpager.PagerTestUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class RecyclingPagerAdapterTest {
+    private ColumnPager pager;
+    private LabelAdapter adapter;
+
+    @Before
+    public void setUp() {
+        final FragmentActivity activity = Robolectric.setupActivity(FragmentActivity.class);
+
+        pager = PagerTestUtils.createPager(activity);
+        adapter = new LabelAdapter(10);
+
+        pager.setAdapter(adapter);
+        PagerTestUtils.layout(pager);
+
+        // Window is 2..4
+        pager.setCurrentItem(3, false);
+    }
+
+    @Test
+    public void insertShiftsBoundHolders() {
+        adapter.labels.add(0, "inserted");
+        adapter.notifyItemRangeInserted(0, 1);
+
+        assertHoldersMatchLabels();
+    }
+
+    @Test
+    public void removeShiftsBoundHolders() {
+        adapter.labels.subList(0, 2).clear();
+        adapter.notifyItemRangeRemoved(0, 2);
+
+        assertHoldersMatchLabels();
+
+        // Current item removed
+        adapter.labels.remove(1);
+        adapter.notifyItemRangeRemoved(1, 1);
+
+        assertHoldersMatchLabels();
+    }
+
+    @Test
+    public void moveShiftsBoundHolders() {
+        adapter.labels.add(2, adapter.labels.remove(8));
+        adapter.notifyItemMoved(8, 2);
+
+        assertHoldersMatchLabels();
+
+        adapter.labels.add(9, adapter.labels.remove(3));
+        adapter.notifyItemMoved(3, 9);
+
+        assertHoldersMatchLabels();
+    }
+
+    private void assertHoldersMatchLabels() {
+        int bound = 0;
+
+        for (LabelHolder holder : adapter.holders) {
+            if (holder.getPosition() == RecyclingPagerAdapter.ViewHolder.NO_POSITION) {
+                continue;
+            }
+
+            assertEquals(adapter.labels.get(holder.getPosition()), holder.label);
+            bound++;
+        }
+
+        assertTrue(bound > 0);
+    }
+
+    private static class LabelHolder extends RecyclingPagerAdapter.ViewHolder {
+        String label;
+
+        LabelHolder(View itemView) {
+            super(itemView);
+        }
+    }
+
+    private static class LabelAdapter extends RecyclingPagerAdapter<LabelHolder> {
+        final ArrayList<String> labels = new ArrayList<String>();
+        final ArrayList<LabelHolder> holders = new ArrayList<LabelHolder>();
+
+        LabelAdapter(int count) {
+            for (int i = 0; i < count; i++) {
+                labels.add("item " + i);
+            }
+        }
+
+        @Override
+        public int getCount() {
+            return labels.size();
+        }
+
+        @Override
+        public LabelHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            final LabelHolder holder = new LabelHolder(new View(parent.getContext()));
+
+            holders.add(holder);
+            return holder;
+        }
+
+        @Override
+        public void onBindViewHolder(LabelHolder holder, int position) {
+            holder.label = labels.get(position);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package net.dgardiner.columnpager.adapters;
+
+import android.os.Bundle;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentManager;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import net.dgardiner.columnpager.ColumnPager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Fragment adapter over a list of stable item IDs, counting the pages it creates and destroys.
+ */
+public class TestFragmentAdapter extends FragmentPagerAdapter {
+    public final ArrayList<Long> itemIds = new ArrayList<Long>();
+
+    // Items reported as POSITION_NONE by getItemPosition()
+    public final HashSet<Long> invalidItemIds = new HashSet<Long>();
+
+    // Last fragment instantiated for each item ID
+    private final HashMap<Long, Fragment> fragments = new HashMap<Long, Fragment>();
+
+    // Item IDs of fragments instantiated and not yet destroyed
+    private final HashMap<Object, Long> activeItemIds = new HashMap<Object, Long>();
+
+    private int instantiatedCount;
+    private int destroyedCount;
+
+    public TestFragmentAdapter(FragmentManager fragmentManager, int count) {
+        super(fragmentManager);
+
+        for (int i = 0; i < count; i++) {
+            itemIds.add(100L + i);
+        }
+    }
+
+    //
+    // Properties
+    //
+
+    public int getInstantiatedCount() {
+        return instantiatedCount;
+    }
+
+    public int getDestroyedCount() {
+        return destroyedCount;
+    }
+
+    public Fragment fragmentOf(long itemId) {
+        return fragments.get(itemId);
+    }
+
+    /**
+     * @return True if the pager holds a page for `itemId`
+     */
+    public boolean isActive(long itemId) {
+        return activeItemIds.containsKey(fragments.get(itemId));
+    }
+
+    //
+    // Public methods
+    //
+
+    public void resetCounts() {
+        instantiatedCount = 0;
+        destroyedCount = 0;
+    }
+
+    @Override
+    public PagerFragment getItem(int position) {
+        return new TestFragment();
+    }
+
+    @Override
+    public int getCount() {
+        return itemIds.size();
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return itemIds.get(position);
+    }
+
+    @Override
+    public int getItemPosition(Object object) {
+        final Long itemId = activeItemIds.get(object);
+
+        if (itemId != null && invalidItemIds.contains(itemId)) {
+            return ColumnPager.POSITION_NONE;
+        }
+
+        return super.getItemPosition(object);
+    }
+
+    @Override
+    public Object instantiateItem(ViewGroup container, int position) {
+        final Object object = super.instantiateItem(container, position);
+
+        fragments.put(getItemId(position), (Fragment) object);
+        activeItemIds.put(object, getItemId(position));
+        instantiatedCount++;
+
+        return object;
+    }
+
+    @Override
+    public void destroyItem(ViewGroup container, int position, Object object) {
+        activeItemIds.remove(object);
+        destroyedCount++;
+
+        super.destroyItem(container, position, object);
+    }
+
+    public static class TestFragment extends PagerFragment {
+        @Override
+        public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
+            return new View(inflater.getContext());
+        }
+    }
+}